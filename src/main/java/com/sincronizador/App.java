@@ -1,13 +1,7 @@
 package com.sincronizador;
 
-import com.google.api.services.drive.Drive;
-import com.sincronizador.application.usecase.AssociarImagemAoCatalogoUseCase;
-import com.sincronizador.application.usecase.GerarStatusDoCatalogoUseCase;
-import com.sincronizador.application.usecase.SincronizarCatalogoUseCase;
-import com.sincronizador.config.DriveConfig;
-import com.sincronizador.infrastructure.drive.DriveCatalogoReader;
-import com.sincronizador.infrastructure.drive.DriveCatalogoWriter;
-import com.sincronizador.infrastructure.erp.ErpEstoqueReader;
+import com.sincronizador.config.AppConfig;
+import com.sincronizador.config.Componentes;
 import com.sincronizador.interfaces.controller.MainController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -16,62 +10,47 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
-import java.io.InputStream;
 import java.util.Objects;
-import java.util.Properties;
 
 public class App extends Application {
 
     private static final String FXML_MAIN_VIEW = "/interfaces/ui/MainView.fxml";
-    private static final String PROPERTIES_PATH = "/app.properties";
-    private static final String KEY_FOLDER_ID = "catalogo.folderId";
+
+    private Componentes componentes;
 
     @Override
     public void start(Stage stage) {
         try {
             // 1) Carrega configuração centralizada
-            String folderId = carregarFolderIdObrigatorio();
-
-            // 2) Cria client do Drive (OAuth já configurado no DriveConfig)
-            Drive drive = DriveConfig.criarDrive();
-
-            // 3) Infra (implementações das portas)
-            var estoqueReader = new ErpEstoqueReader();
-            var catalogoReader = new DriveCatalogoReader(drive, folderId);
-            var catalogoWriter = new DriveCatalogoWriter(drive, folderId);
-
-            // 4) Repositório local de imagem (associação permanente)
-            var imagemRepo = new com.sincronizador.infrastructure.local.PropertiesImagemRepository();
-
-            // 5) Use cases (regras de aplicação)
-            // ✅ aqui é estoqueReader + catalogoReader (não imagemRepo)
-            var gerarStatus = new GerarStatusDoCatalogoUseCase(estoqueReader, catalogoReader);
-
-            // ✅ sincronização precisa de ERP + Drive + repo local
-            var sincronizar = new SincronizarCatalogoUseCase(estoqueReader, catalogoReader, catalogoWriter, imagemRepo);
+            AppConfig config = AppConfig.carregar();
 
-            // ✅ associar imagem salva localmente (não publica no drive diretamente)
-            var associarImagem = new AssociarImagemAoCatalogoUseCase(imagemRepo);
+            // 2) Drive (OAuth interativo), ERP, repositório de imagens e use cases
+            componentes = Componentes.montar(config, true);
 
-            // 6) UI (FXML + Controller)
+            // 3) UI (FXML + Controller)
             FXMLLoader loader = new FXMLLoader(getClass().getResource(FXML_MAIN_VIEW));
             Parent root = loader.load();
 
             MainController controller = loader.getController();
 
             // Ordem de injeção:
-            controller.setSincronizarCatalogoUseCase(sincronizar);
-            controller.setAssociarImagemUseCase(associarImagem);
+            controller.setSincronizarCatalogoUseCase(componentes.getSincronizar());
+            controller.setAssociarImagemUseCase(componentes.getAssociarImagem());
 
             // ✅ NOVO: injeta o repo de imagens pro painel lateral (preview)
-            controller.setImagemRepository(imagemRepo);
+            controller.setImagemRepository(componentes.getImagemRepository());
+
+            // métricas do rate limiter (tempo segurado por throttling) no resumo da sync
+            controller.setMetricasDrive(componentes::getMetricasDrive);
 
             // Por último, injeta o use case que carrega a tabela
-            controller.setGerarStatusUseCase(gerarStatus);
+            controller.setGerarStatusUseCase(componentes.getGerarStatus());
 
-            // 7) Stage
+            // 4) Stage
             stage.setTitle("Sincronizador de Catálogo");
             stage.setScene(new Scene(root));
+            // fechar a janela cancela o que estiver rodando em segundo plano
+            stage.setOnCloseRequest(e -> controller.encerrar());
             stage.show();
 
         } catch (Exception e) {
@@ -80,29 +59,11 @@ public class App extends Application {
         }
     }
 
-    private String carregarFolderIdObrigatorio() {
-        Properties props = new Properties();
-
-        try (InputStream in = App.class.getResourceAsStream(PROPERTIES_PATH)) {
-            if (in == null) {
-                throw new IllegalStateException(
-                        "Arquivo " + PROPERTIES_PATH + " não encontrado. " +
-                                "Crie em src/main/resources/app.properties e defina " + KEY_FOLDER_ID + "."
-                );
-            }
-            props.load(in);
-        } catch (Exception e) {
-            throw new RuntimeException("Falha ao carregar " + PROPERTIES_PATH, e);
-        }
-
-        String folderId = props.getProperty(KEY_FOLDER_ID);
-        if (folderId == null || folderId.trim().isEmpty() || folderId.contains("COLE_AQUI")) {
-            throw new IllegalStateException(
-                    "Configuração inválida: " + KEY_FOLDER_ID + " não está preenchido em " + PROPERTIES_PATH + "."
-            );
+    @Override
+    public void stop() {
+        if (componentes != null) {
+            componentes.close();
         }
-
-        return folderId.trim();
     }
 
     private void mostrarErroInicializacao(Exception e) {
@@ -2,6 +2,7 @@ package com.sincronizador.application.dto;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 public class ResultadoSincronizacaoDTO {
 
@@ -11,6 +12,9 @@ public class ResultadoSincronizacaoDTO {
     private final int pendentesCriacaoSemImagem;
     private final List<String> erros;
 
+    // quanto a leitura de ERP/catálogo levou no início da execução (pode não existir)
+    private final TemposDeLeitura temposDeLeitura;
+
     // Construtor novo (com criados)
     public ResultadoSincronizacaoDTO(
             int criados,
@@ -18,12 +22,24 @@ public class ResultadoSincronizacaoDTO {
             int removidos,
             int pendentesCriacaoSemImagem,
             List<String> erros
+    ) {
+        this(criados, atualizados, removidos, pendentesCriacaoSemImagem, erros, null);
+    }
+
+    public ResultadoSincronizacaoDTO(
+            int criados,
+            int atualizados,
+            int removidos,
+            int pendentesCriacaoSemImagem,
+            List<String> erros,
+            TemposDeLeitura temposDeLeitura
     ) {
         this.criados = criados;
         this.atualizados = atualizados;
         this.removidos = removidos;
         this.pendentesCriacaoSemImagem = pendentesCriacaoSemImagem;
         this.erros = (erros == null) ? List.of() : erros;
+        this.temposDeLeitura = temposDeLeitura;
     }
 
     // Construtor antigo (mantém compatibilidade)
@@ -60,4 +76,13 @@ public class ResultadoSincronizacaoDTO {
     public boolean temErros() {
         return !erros.isEmpty();
     }
+
+    public Optional<TemposDeLeitura> getTemposDeLeitura() {
+        return Optional.ofNullable(temposDeLeitura);
+    }
+
+    public ResultadoSincronizacaoDTO comTemposDeLeitura(TemposDeLeitura tempos) {
+        return new ResultadoSincronizacaoDTO(
+                criados, atualizados, removidos, pendentesCriacaoSemImagem, erros, tempos);
+    }
 }
@@ -0,0 +1,35 @@
+package com.sincronizador.application.dto;
+
+/**
+ * Quanto tempo cada fonte levou para ser lida no início de uma execução.
+ * ERP e catálogo são lidos ao mesmo tempo: o total fica perto do maior dos dois, não da soma.
+ */
+public class TemposDeLeitura {
+
+    private final long estoqueMs;
+    private final long catalogoMs;
+    private final long totalMs;
+
+    public TemposDeLeitura(long estoqueMs, long catalogoMs, long totalMs) {
+        this.estoqueMs = estoqueMs;
+        this.catalogoMs = catalogoMs;
+        this.totalMs = totalMs;
+    }
+
+    public long getEstoqueMs() {
+        return estoqueMs;
+    }
+
+    public long getCatalogoMs() {
+        return catalogoMs;
+    }
+
+    public long getTotalMs() {
+        return totalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ERP " + estoqueMs + " ms, catálogo " + catalogoMs + " ms (total " + totalMs + " ms)";
+    }
+}
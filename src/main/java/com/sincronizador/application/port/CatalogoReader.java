@@ -3,8 +3,18 @@ package com.sincronizador.application.port;
 import com.sincronizador.domain.model.ItemDeCatalogo;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CatalogoReader {
 
     List<ItemDeCatalogo> obterItens();
+
+    /**
+     * Variante em streaming: entrega cada item ao consumidor assim que ele é lido,
+     * sem esperar a listagem completa.
+     * Implementações paginadas devem sobrescrever; o padrão apenas percorre obterItens().
+     */
+    default void percorrerItens(Consumer<ItemDeCatalogo> consumidor) {
+        obterItens().forEach(consumidor);
+    }
 }
@@ -1,9 +1,12 @@
 package com.sincronizador.application.port;
 
 import com.sincronizador.domain.model.Disponibilidade;
+import com.sincronizador.domain.model.ItemDeCatalogo;
 import com.sincronizador.domain.model.SKU;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 
 public interface CatalogoWriter {
 
@@ -22,4 +25,74 @@ public interface CatalogoWriter {
      * Retorna true se realmente precisou alterar algo, false se já estava igual.
      */
     boolean atualizarTamanhosFabrica(String fileId, Disponibilidade disponibilidade);
+
+    // ---------------------------------------------------------------------
+    // Variantes que recebem o item listado: quando ele traz SnapshotRemoto,
+    // a conferência "já está igual?" é feita sem ir à rede.
+    // Retornam true se realmente precisou alterar algo.
+    // ---------------------------------------------------------------------
+
+    default boolean atualizarLegenda(ItemDeCatalogo item, String novoNome) {
+        atualizarLegenda(item.getIdExterno(), novoNome);
+        return true;
+    }
+
+    default boolean trocarImagem(ItemDeCatalogo item, File novaImagemLocal) {
+        trocarImagem(item.getIdExterno(), novaImagemLocal);
+        return true;
+    }
+
+    default boolean atualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        return atualizarTamanhosFabrica(item.getIdExterno(), disponibilidade);
+    }
+
+    // ---------------------------------------------------------------------
+    // Planejamento (sem rede): decidem com o SnapshotRemoto do item listado se a
+    // alteração seria necessária. Na dúvida respondem "precisa" — a execução
+    // continua fazendo o no-op quando já estiver igual.
+    // ---------------------------------------------------------------------
+
+    default boolean precisaRenomear(ItemDeCatalogo item, String novoNome) {
+        return item.getSnapshotRemoto()
+                .map(s -> !novoNome.equals(s.getNome()))
+                .orElse(true);
+    }
+
+    default boolean precisaAtualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        return true;
+    }
+
+    default boolean precisaTrocarImagem(ItemDeCatalogo item, File imagemLocal) {
+        return true;
+    }
+
+    /**
+     * Quantos bytes o envio desta imagem deve transferir (ex.: tamanho da versão otimizada).
+     */
+    default long bytesDeEnvio(File imagemLocal) {
+        return imagemLocal.length();
+    }
+
+    /**
+     * Chance de processar antecipadamente (e em paralelo) as imagens que a sync vai enviar,
+     * ex.: gerar as versões reduzidas/recomprimidas. Padrão: nada a preparar.
+     */
+    default void prepararImagens(Collection<File> imagensLocais) {
+    }
+
+    /**
+     * Entra no modo lote: renomeações, patches de metadata e remoções passam a ser
+     * acumulados e só são enviados em concluirLote().
+     * Implementações sem suporte a lote continuam executando cada chamada na hora.
+     */
+    default void iniciarLote() {
+    }
+
+    /**
+     * Envia as mutações acumuladas desde iniciarLote() e sai do modo lote.
+     * Retorna as falhas por fileId (mensagem de erro); vazio se tudo deu certo.
+     */
+    default Map<String, String> concluirLote() {
+        return Map.of();
+    }
 }
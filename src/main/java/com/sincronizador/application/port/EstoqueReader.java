@@ -3,8 +3,19 @@ package com.sincronizador.application.port;
 import com.sincronizador.domain.model.Disponibilidade;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EstoqueReader {
 
     List<Disponibilidade> obterDisponibilidades();
+
+    /**
+     * Entrega cada disponibilidade assim que ela fica pronta, sem montar a lista inteira.
+     * Padrão: delega para obterDisponibilidades().
+     */
+    default void percorrerDisponibilidades(Consumer<Disponibilidade> consumidor) {
+        for (Disponibilidade d : obterDisponibilidades()) {
+            consumidor.accept(d);
+        }
+    }
 }
@@ -3,6 +3,9 @@ package com.sincronizador.application.port;
 import com.sincronizador.domain.model.SKU;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ImagemRepository {
@@ -11,6 +14,18 @@ public interface ImagemRepository {
 
     Optional<File> obterImagem(SKU sku);
 
+    /**
+     * Resolve vários SKUs de uma vez; o mapa só contém os que têm imagem local.
+     * Padrão: uma chamada de obterImagem por SKU.
+     */
+    default Map<SKU, File> obterImagens(Collection<SKU> skus) {
+        Map<SKU, File> out = new LinkedHashMap<>();
+        for (SKU sku : skus) {
+            obterImagem(sku).ifPresent(f -> out.put(sku, f));
+        }
+        return out;
+    }
+
     /**
      * Salva a associação de forma permanente (copiando o arquivo para a pasta do app)
      * e retorna o arquivo final salvo.
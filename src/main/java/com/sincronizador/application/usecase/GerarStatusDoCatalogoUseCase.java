@@ -2,6 +2,7 @@ package com.sincronizador.application.usecase;
 
 import com.sincronizador.application.dto.EstadoProdutoCatalogo;
 import com.sincronizador.application.dto.ProdutoCatalogoStatusDTO;
+import com.sincronizador.application.dto.TemposDeLeitura;
 import com.sincronizador.application.port.CatalogoReader;
 import com.sincronizador.application.port.EstoqueReader;
 import com.sincronizador.domain.model.Disponibilidade;
@@ -13,35 +14,50 @@ import com.sincronizador.domain.service.GeradorDeLegenda;
 import com.sincronizador.domain.valueobject.Tipo;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public class GerarStatusDoCatalogoUseCase {
 
     private final EstoqueReader estoqueReader;
     private final CatalogoReader catalogoReader;
 
+    private volatile TemposDeLeitura ultimaLeitura;
+
     public GerarStatusDoCatalogoUseCase(EstoqueReader estoqueReader, CatalogoReader catalogoReader) {
         this.estoqueReader = Objects.requireNonNull(estoqueReader);
         this.catalogoReader = Objects.requireNonNull(catalogoReader);
     }
 
+    /**
+     * Tempos de leitura de ERP/catálogo da última execução (null se ainda não houve).
+     */
+    public TemposDeLeitura getUltimaLeitura() {
+        return ultimaLeitura;
+    }
+
     public List<ProdutoCatalogoStatusDTO> executar() {
+        List<ProdutoCatalogoStatusDTO> out = new ArrayList<>();
+        executar(out::addAll, Integer.MAX_VALUE);
+        return out;
+    }
 
-        List<Disponibilidade> estoque = estoqueReader.obterDisponibilidades();
-        List<ItemDeCatalogo> itensCatalogo = catalogoReader.obterItens();
+    /**
+     * Variante em blocos: as linhas (já na ordem final) são entregues de tamanhoBloco em
+     * tamanhoBloco assim que calculadas, para a UI ir preenchendo a tabela.
+     * Se o consumidor lançar exceção (ex.: carga cancelada), o processamento para ali.
+     */
+    public void executar(Consumer<List<ProdutoCatalogoStatusDTO>> consumidorDeBlocos, int tamanhoBloco) {
+        Objects.requireNonNull(consumidorDeBlocos, "consumidorDeBlocos não pode ser nulo");
+        int bloco = Math.max(1, tamanhoBloco);
 
-        Map<SKU, Disponibilidade> erpPorSku = new HashMap<>();
-        for (Disponibilidade d : estoque) {
-            if (d != null && d.getSku() != null) {
-                erpPorSku.put(d.getSku(), d);
-            }
-        }
+        // ✅ ERP e Drive lidos ao mesmo tempo; se um falhar, o outro é cancelado
+        // ✅ cada lado em streaming direto para o seu mapa (sem lista intermediária)
+        LeituraConcorrente.Resultado<Map<SKU, Disponibilidade>, Map<SKU, ItemDeCatalogo>> leitura =
+                LeituraConcorrente.ler(this::lerEstoque, this::lerCatalogo);
+        ultimaLeitura = leitura.tempos;
 
-        Map<SKU, ItemDeCatalogo> drivePorSku = new HashMap<>();
-        for (ItemDeCatalogo i : itensCatalogo) {
-            if (i != null && i.getSku() != null) {
-                drivePorSku.put(i.getSku(), i);
-            }
-        }
+        Map<SKU, Disponibilidade> erpPorSku = leitura.estoque;
+        Map<SKU, ItemDeCatalogo> drivePorSku = leitura.catalogo;
 
         Set<SKU> todos = new HashSet<>();
         todos.addAll(erpPorSku.keySet());
@@ -49,11 +65,11 @@ public class GerarStatusDoCatalogoUseCase {
 
         ComparadorDeTamanhos comparador = new ComparadorDeTamanhos();
 
-        List<ProdutoCatalogoStatusDTO> out = new ArrayList<>();
+        List<ProdutoCatalogoStatusDTO> out = new ArrayList<>(Math.min(bloco, todos.size()));
 
         // ordena para ficar estável/bonito
         List<SKU> ordenado = new ArrayList<>(todos);
-        ordenado.sort(Comparator.comparing(this::skuSortKey));
+        ordenado.sort(SKU.ORDEM);
 
         for (SKU sku : ordenado) {
 
@@ -76,8 +92,7 @@ public class GerarStatusDoCatalogoUseCase {
                 if (sku != null && sku.getTipo() == Tipo.INFANTIL && itemDrive != null) {
                     boolean driveSemTamanhosTecnicos =
                             itemDrive.getDisponibilidade() == null
-                                    || itemDrive.getDisponibilidade().getTamanhosDisponiveis() == null
-                                    || itemDrive.getDisponibilidade().getTamanhosDisponiveis().isEmpty();
+                                    || itemDrive.getDisponibilidade().getMascara() == 0;
 
                     if (driveSemTamanhosTecnicos) {
                         estado = EstadoProdutoCatalogo.OK;
@@ -111,9 +126,36 @@ public class GerarStatusDoCatalogoUseCase {
             }
 
             out.add(new ProdutoCatalogoStatusDTO(sku, nomeProduto, estado, tamanhosResumo));
+
+            if (out.size() >= bloco) {
+                consumidorDeBlocos.accept(out);
+                out = new ArrayList<>();
+            }
         }
 
-        return out;
+        if (!out.isEmpty()) consumidorDeBlocos.accept(out);
+    }
+
+    private Map<SKU, Disponibilidade> lerEstoque() {
+        Map<SKU, Disponibilidade> erpPorSku = new HashMap<>();
+        estoqueReader.percorrerDisponibilidades(d -> {
+            LeituraConcorrente.verificarCancelamento();
+            if (d != null && d.getSku() != null) {
+                erpPorSku.put(d.getSku(), d);
+            }
+        });
+        return erpPorSku;
+    }
+
+    private Map<SKU, ItemDeCatalogo> lerCatalogo() {
+        Map<SKU, ItemDeCatalogo> drivePorSku = new HashMap<>();
+        catalogoReader.percorrerItens(i -> {
+            LeituraConcorrente.verificarCancelamento();
+            if (i != null && i.getSku() != null) {
+                drivePorSku.put(i.getSku(), i);
+            }
+        });
+        return drivePorSku;
     }
 
     private String extrairParteDepoisDoHifen(String legenda) {
@@ -122,16 +164,4 @@ public class GerarStatusDoCatalogoUseCase {
         if (idx < 0) return "—";
         return legenda.substring(idx + 3).trim();
     }
-
-    private String skuSortKey(SKU sku) {
-        if (sku == null) return "";
-        try {
-            String clube = sku.getClube() == null ? "" : sku.getClube().trim();
-            String modelo = sku.getModelo() == null ? "" : sku.getModelo().trim();
-            String tipo = sku.getTipo() == null ? "" : sku.getTipo().name();
-            return (clube + "|" + modelo + "|" + tipo).toUpperCase(Locale.ROOT);
-        } catch (Exception e) {
-            return String.valueOf(sku).toUpperCase(Locale.ROOT);
-        }
-    }
 }
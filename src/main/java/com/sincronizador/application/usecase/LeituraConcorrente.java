@@ -0,0 +1,112 @@
+package com.sincronizador.application.usecase;
+
+import com.sincronizador.application.dto.TemposDeLeitura;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lê ERP e catálogo ao mesmo tempo (as duas fontes são independentes).
+ *
+ * - a primeira falha é propagada como está e a outra leitura é cancelada (interrompida);
+ * - interromper a thread chamadora cancela as duas;
+ * - as leituras em streaming devem chamar verificarCancelamento() a cada item, para pararem logo.
+ */
+final class LeituraConcorrente {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    // threads só existem enquanto há leitura (somem após 30s ociosas)
+    private static final ExecutorService POOL = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            30, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            r -> {
+                Thread t = new Thread(r, "sincronizador-leitura-" + SEQ.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    private LeituraConcorrente() {}
+
+    static final class Resultado<E, C> {
+        final E estoque;
+        final C catalogo;
+        final TemposDeLeitura tempos;
+
+        private Resultado(E estoque, C catalogo, TemposDeLeitura tempos) {
+            this.estoque = estoque;
+            this.catalogo = catalogo;
+            this.tempos = tempos;
+        }
+    }
+
+    static <E, C> Resultado<E, C> ler(Supplier<E> leituraEstoque, Supplier<C> leituraCatalogo) {
+        long inicio = System.nanoTime();
+
+        Medida<E> estoque = new Medida<>(leituraEstoque);
+        Medida<C> catalogo = new Medida<>(leituraCatalogo);
+
+        CompletionService<Object> conclusoes = new ExecutorCompletionService<>(POOL);
+        Future<Object> fEstoque = conclusoes.submit(estoque::executar);
+        Future<Object> fCatalogo = conclusoes.submit(catalogo::executar);
+
+        try {
+            // na ordem em que terminarem: a primeira falha não espera a outra fonte
+            for (int i = 0; i < 2; i++) {
+                conclusoes.take().get();
+            }
+        } catch (ExecutionException e) {
+            fEstoque.cancel(true);
+            fCatalogo.cancel(true);
+            throw propagar(e.getCause());
+        } catch (InterruptedException e) {
+            fEstoque.cancel(true);
+            fCatalogo.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Leitura de ERP/catálogo interrompida");
+        }
+
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        return new Resultado<>(
+                estoque.valor,
+                catalogo.valor,
+                new TemposDeLeitura(estoque.ms, catalogo.ms, totalMs));
+    }
+
+    /**
+     * Chamado dentro dos consumidores de streaming: para a leitura se ela foi cancelada.
+     */
+    static void verificarCancelamento() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Leitura cancelada");
+        }
+    }
+
+    private static RuntimeException propagar(Throwable causa) {
+        if (causa instanceof RuntimeException) return (RuntimeException) causa;
+        if (causa instanceof Error) throw (Error) causa;
+        return new RuntimeException("Falha ao ler ERP/catálogo", causa);
+    }
+
+    private static final class Medida<T> {
+        private final Supplier<T> leitura;
+        private volatile T valor;
+        private volatile long ms;
+
+        private Medida(Supplier<T> leitura) {
+            this.leitura = leitura;
+        }
+
+        private Object executar() {
+            long t0 = System.nanoTime();
+            try {
+                valor = leitura.get();
+                return valor;
+            } finally {
+                ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            }
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.sincronizador.application.usecase;
 
 import com.sincronizador.application.dto.ResultadoSincronizacaoDTO;
+import com.sincronizador.application.dto.TemposDeLeitura;
 import com.sincronizador.application.port.CatalogoReader;
 import com.sincronizador.application.port.CatalogoWriter;
 import com.sincronizador.application.port.EstoqueReader;
 import com.sincronizador.application.port.ImagemRepository;
+import com.sincronizador.domain.model.AcaoDeSincronizacao;
 import com.sincronizador.domain.model.Disponibilidade;
 import com.sincronizador.domain.model.ItemDeCatalogo;
-import com.sincronizador.domain.model.ResultadoComparacaoTamanhos;
+import com.sincronizador.domain.model.PlanoDeSincronizacao;
 import com.sincronizador.domain.model.SKU;
-import com.sincronizador.domain.service.ComparadorDeTamanhos;
+import com.sincronizador.domain.service.ComparacaoIncremental;
 import com.sincronizador.domain.service.GeradorDeLegenda;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class SincronizarCatalogoUseCase {
 
@@ -32,169 +37,413 @@ public class SincronizarCatalogoUseCase {
     private final CatalogoWriter catalogoWriter;
     private final ImagemRepository imagemRepository;
 
+    // quantos SKUs podem ser processados ao mesmo tempo (1 = sequencial)
+    private final int paralelismo;
+
+    private volatile TemposDeLeitura ultimaLeitura;
+
     public SincronizarCatalogoUseCase(
             EstoqueReader estoqueReader,
             CatalogoReader catalogoReader,
             CatalogoWriter catalogoWriter,
             ImagemRepository imagemRepository
+    ) {
+        this(estoqueReader, catalogoReader, catalogoWriter, imagemRepository, 1);
+    }
+
+    public SincronizarCatalogoUseCase(
+            EstoqueReader estoqueReader,
+            CatalogoReader catalogoReader,
+            CatalogoWriter catalogoWriter,
+            ImagemRepository imagemRepository,
+            int paralelismo
     ) {
         this.estoqueReader = Objects.requireNonNull(estoqueReader);
         this.catalogoReader = Objects.requireNonNull(catalogoReader);
         this.catalogoWriter = Objects.requireNonNull(catalogoWriter);
         this.imagemRepository = Objects.requireNonNull(imagemRepository);
+        this.paralelismo = Math.max(1, paralelismo);
     }
 
     public ResultadoSincronizacaoDTO executar() {
         return executar(null);
     }
 
+    /**
+     * Planeja e executa em seguida.
+     */
     public ResultadoSincronizacaoDTO executar(ProgressoCallback progresso) {
+        Planejamento p = planejarComTempos(progresso, true);
+        return executarPlano(p.plano, progresso).comTemposDeLeitura(p.tempos);
+    }
+
+    public PlanoDeSincronizacao planejar() {
+        return planejar(null);
+    }
+
+    /**
+     * Tempos de leitura de ERP/catálogo do último planejamento (null se ainda não houve).
+     */
+    public TemposDeLeitura getUltimaLeitura() {
+        return ultimaLeitura;
+    }
+
+    /**
+     * ✅ Fase de planejamento: lê ERP + listagem do Drive + imagens locais e decide TODAS as ações,
+     * sem nenhuma escrita e sem consultas por arquivo no Drive (a conferência "já está igual?"
+     * usa o snapshot que veio na listagem). Serve também como simulação (dry-run).
+     */
+    public PlanoDeSincronizacao planejar(ProgressoCallback progresso) {
+        return planejarComTempos(progresso, true).plano;
+    }
+
+    /**
+     * Simulação (dry-run): o mesmo plano, mas sem o pré-processamento em lote das imagens
+     * (não gera o cache de versões otimizadas de uma vez nem apaga as órfãs).
+     * A conferência por SKU ainda calcula o md5 da versão que seria enviada, então uma imagem
+     * nunca otimizada antes é otimizada ali (fica no cache, como na sync de verdade).
+     */
+    public PlanoDeSincronizacao simular(ProgressoCallback progresso) {
+        return planejarComTempos(progresso, false).plano;
+    }
+
+    private Planejamento planejarComTempos(ProgressoCallback progresso, boolean prepararImagens) {
+        Progresso prog = new Progresso(progresso, 1);
+
+        // ✅ ERP e Drive são lidos AO MESMO TEMPO (fontes independentes): a espera é a da mais lenta.
+        // Cada um em streaming; se um falhar, o outro é cancelado e a falha sobe como está.
+        // ✅ A comparação anda junto: cada SKU é pareado (e os tamanhos comparados) quando o segundo lado
+        // chega, página a página do Drive; ao fim das leituras só sobra montar o plano.
+        prog.informar("Lendo ERP e catálogo...");
+        ComparacaoIncremental emAndamento = new ComparacaoIncremental();
+        LeituraConcorrente.Resultado<Map<SKU, Disponibilidade>, Integer> leitura =
+                LeituraConcorrente.ler(() -> lerEstoque(emAndamento), () -> lerCatalogo(emAndamento));
+        ultimaLeitura = leitura.tempos;
+
+        Map<SKU, Disponibilidade> erpPorSku = leitura.estoque;
+
+        // uma ação por SKU do ERP (já pareado com o item) + remoções
+        PlanoDeSincronizacao comparacao = emAndamento.concluir();
+
+        // ✅ uma consulta em lote ao repositório de imagens (não um stat por SKU)
+        Map<SKU, File> imagensLocais = imagemRepository.obterImagens(erpPorSku.keySet());
+
+        // ✅ Imagens que podem subir nesta sync são preparadas antes, em paralelo (ex.: versão otimizada)
+        if (prepararImagens) {
+            prog.informar("Preparando imagens...");
+            catalogoWriter.prepararImagens(imagensLocais.values());
+        }
+
+        prog.informar("Planejando alterações...");
+        PlanoDeSincronizacao plano = new PlanoDeSincronizacao();
+
+        // 1) REMOVER do Drive o que não existe mais no ERP
+        for (AcaoDeSincronizacao acao : comparacao.getAcoes(AcaoDeSincronizacao.Tipo.REMOVER)) {
+            // segurança p/ não apagar “arquivos velhos/sem identidade”
+            if (ehPlaceholderCatalogo(acao.getSku())) continue;
+            plano.adicionar(acao);
+        }
+
+        // 2) CRIAR/ATUALIZAR baseado no ERP + imagem LOCAL (conferência por SKU em paralelo: md5 local)
+        List<Callable<PlanoDeSincronizacao>> tarefas = new ArrayList<>(erpPorSku.size());
+        for (AcaoDeSincronizacao acao : comparacao.getAcoes()) {
+            if (acao.getTipo() == AcaoDeSincronizacao.Tipo.REMOVER) continue;
+            File imgLocal = imagensLocais.get(acao.getSku());
+            tarefas.add(() -> planejarSku(acao, imgLocal));
+        }
 
-        List<Disponibilidade> estoque = estoqueReader.obterDisponibilidades();
-        List<ItemDeCatalogo> itensCatalogo = catalogoReader.obterItens();
+        List<PlanoDeSincronizacao> parciais = executarTarefas(tarefas, e -> {
+            PlanoDeSincronizacao falhou = new PlanoDeSincronizacao();
+            falhou.adicionarErro("ERRO -> " + resumirErro(e));
+            return falhou;
+        });
+        parciais.forEach(plano::incorporar);
 
+        return new Planejamento(plano, leitura.tempos);
+    }
+
+    private Map<SKU, Disponibilidade> lerEstoque(ComparacaoIncremental emAndamento) {
+        // ✅ O ERP é lido em streaming: cada SKU entra no mapa (e na comparação) assim que é agregado
         Map<SKU, Disponibilidade> erpPorSku = new HashMap<>();
-        for (Disponibilidade d : estoque) {
+        estoqueReader.percorrerDisponibilidades(d -> {
+            LeituraConcorrente.verificarCancelamento();
             if (d != null && d.getSku() != null) {
                 erpPorSku.put(d.getSku(), d);
+                emAndamento.adicionarDoErp(d);
             }
-        }
+        });
+        return erpPorSku;
+    }
 
-        Map<SKU, ItemDeCatalogo> drivePorSku = new HashMap<>();
-        for (ItemDeCatalogo i : itensCatalogo) {
-            if (i != null && i.getSku() != null) {
-                drivePorSku.put(i.getSku(), i);
+    /**
+     * Entrega cada item do Drive à comparação assim que a página dele chega (nenhuma lista intermediária).
+     * @return quantos itens foram lidos
+     */
+    private Integer lerCatalogo(ComparacaoIncremental emAndamento) {
+        int[] lidos = {0};
+        catalogoReader.percorrerItens(item -> {
+            LeituraConcorrente.verificarCancelamento();
+            if (item != null && item.getSku() != null) {
+                emAndamento.adicionarDoCatalogo(item);
+                lidos[0]++;
             }
+        });
+        return lidos[0];
+    }
+
+    /**
+     * Refina a decisão da comparação de um SKU (CRIAR/ATUALIZAR/NENHUMA) com a imagem local
+     * e as conferências do writer (metadata, legenda, conteúdo da imagem).
+     */
+    private PlanoDeSincronizacao planejarSku(AcaoDeSincronizacao comparacao, File imgLocal) {
+        SKU sku = comparacao.getSku();
+        Disponibilidade dispErp = comparacao.getDisponibilidade();
+        ItemDeCatalogo itemDrive = comparacao.getItem();
+        PlanoDeSincronizacao acoes = new PlanoDeSincronizacao();
+
+        if (imgLocal == null) {
+            acoes.adicionar(AcaoDeSincronizacao.pendenteSemImagem(sku, "Sem imagem local associada"));
+            return acoes;
         }
 
-        int criados = 0;
-        int atualizados = 0;
-        int removidos = 0;
-        int pendentesSemImagemLocal = 0;
-        List<String> erros = new ArrayList<>();
+        // Se não existe no Drive, cria
+        if (comparacao.getTipo() == AcaoDeSincronizacao.Tipo.CRIAR) {
+            acoes.adicionar(AcaoDeSincronizacao.criar(
+                    dispErp, imgLocal, bytesDeEnvio(imgLocal), comparacao.getMotivo()));
+            return acoes;
+        }
 
-        ComparadorDeTamanhos comparador = new ComparadorDeTamanhos();
+        // ✅ Metadata técnica (tamanhos de fábrica) atualizada no Drive: é a “migração automática” —
+        // os arquivos existentes passam a ter sku_tamanhos_fabrica e o Reader para de depender do nome
+        // (idade) para INFANTIL.
+        // Na dúvida (falha ao conferir), a ação entra no plano: a execução ainda faz o no-op se igual.
+        boolean metadata;
+        try {
+            metadata = catalogoWriter.precisaAtualizarTamanhosFabrica(itemDrive, dispErp);
+        } catch (Exception e) {
+            metadata = true;
+        }
+        if (metadata) {
+            acoes.adicionar(AcaoDeSincronizacao.atualizarMetadados(
+                    itemDrive, dispErp, "Tamanhos de fábrica desatualizados na metadata"));
+        }
 
-        // --- prepara total para progresso ---
-        int removiveis = 0;
-        for (ItemDeCatalogo item : itensCatalogo) {
-            if (item == null || item.getSku() == null) continue;
-            SKU sku = item.getSku();
-            if (ehPlaceholderCatalogo(sku)) continue;
-            if (!erpPorSku.containsKey(sku)) removiveis++;
+        // Legenda só muda quando os tamanhos divergem
+        if (comparacao.getTipo() == AcaoDeSincronizacao.Tipo.ATUALIZAR) {
+            try {
+                String legenda = GeradorDeLegenda.gerarLegenda(dispErp);
+                if (catalogoWriter.precisaRenomear(itemDrive, legenda)) {
+                    acoes.adicionar(AcaoDeSincronizacao.renomear(itemDrive, legenda, comparacao.getMotivo()));
+                }
+            } catch (Exception e) {
+                acoes.adicionarErro("LEGENDA " + sku + " -> " + resumirErro(e));
+            }
         }
 
-        List<Map.Entry<SKU, Disponibilidade>> erpEntries = new ArrayList<>(erpPorSku.entrySet());
-        erpEntries.sort(Comparator.comparing(e -> safeSkuKey(e.getKey())));
+        // Imagem SOMENTE se de fato for diferente (md5 da versão que seria enviada x md5 listado)
+        boolean imagem;
+        String motivoImagem = "Imagem local diferente da publicada";
+        try {
+            imagem = catalogoWriter.precisaTrocarImagem(itemDrive, imgLocal);
+        } catch (Exception e) {
+            imagem = true;
+            motivoImagem = "Não foi possível conferir a imagem: " + resumirErro(e);
+        }
+        if (imagem) {
+            acoes.adicionar(AcaoDeSincronizacao.trocarImagem(itemDrive, imgLocal, bytesDeEnvio(imgLocal), motivoImagem));
+        }
 
-        int total = removiveis + erpEntries.size();
-        int atual = 0;
+        return acoes;
+    }
 
-        // 1) REMOVER do Drive o que não existe mais no ERP
-        for (ItemDeCatalogo item : itensCatalogo) {
-            if (item == null || item.getSku() == null) continue;
+    private long bytesDeEnvio(File imagemLocal) {
+        try {
+            return catalogoWriter.bytesDeEnvio(imagemLocal);
+        } catch (Exception e) {
+            return imagemLocal.length();
+        }
+    }
 
-            SKU sku = item.getSku();
+    /**
+     * ✅ Fase de execução: roda as ações do plano agrupadas por tipo.
+     * - remoções e patches de metadata/legenda entram no lote (batch requests) e vão juntos no fim;
+     * - envios de imagem (criar/trocar) rodam em paralelo, os maiores primeiro, para não sobrar
+     *   um upload grande sozinho no final.
+     */
+    public ResultadoSincronizacaoDTO executarPlano(PlanoDeSincronizacao plano, ProgressoCallback progresso) {
+        Objects.requireNonNull(plano, "plano não pode ser nulo");
+
+        List<AcaoDeSincronizacao> emLote = new ArrayList<>();
+        List<AcaoDeSincronizacao> envios = new ArrayList<>();
+        for (AcaoDeSincronizacao acao : plano.getAcoes()) {
+            switch (acao.getTipo()) {
+                case REMOVER, ATUALIZAR_METADADOS, RENOMEAR -> emLote.add(acao);
+                case CRIAR, TROCAR_IMAGEM -> envios.add(acao);
+                default -> { }
+            }
+        }
+        envios.sort(Comparator.comparingLong(AcaoDeSincronizacao::getBytesEstimados).reversed());
 
-            // segurança p/ não apagar “arquivos velhos/sem identidade”
-            if (ehPlaceholderCatalogo(sku)) continue;
+        int total = emLote.size() + envios.size();
+        Progresso prog = new Progresso(progresso, total);
 
-            if (!erpPorSku.containsKey(sku)) {
-                atual++;
-                report(progresso, atual, total, "Removendo do Drive: " + sku);
+        // ✅ Renomeações, patches de metadata e remoções vão em batch requests (quando o writer suportar).
+        catalogoWriter.iniciarLote();
 
-                try {
-                    catalogoWriter.remover(item.getIdExterno());
-                    removidos++;
-                } catch (Exception e) {
-                    erros.add("REMOVER " + sku + " -> " + resumirErro(e));
-                }
-            }
-        }
+        List<Callable<ResultadoDaAcao>> tarefas = new ArrayList<>(total);
+        for (AcaoDeSincronizacao acao : emLote) tarefas.add(() -> executarAcao(acao, prog));
+        for (AcaoDeSincronizacao acao : envios) tarefas.add(() -> executarAcao(acao, prog));
+
+        List<ResultadoDaAcao> resultados = executarTarefas(tarefas, e -> {
+            ResultadoDaAcao r = new ResultadoDaAcao(null);
+            r.erro = "ERRO -> " + resumirErro(e);
+            return r;
+        });
 
-        // 2) CRIAR/ATUALIZAR no Drive baseado no ERP + imagem LOCAL
-        for (Map.Entry<SKU, Disponibilidade> entry : erpEntries) {
-            SKU sku = entry.getKey();
-            Disponibilidade dispErp = entry.getValue();
+        // 3) ENVIA o lote e devolve as falhas individuais para a lista de erros
+        prog.informar("Enviando alterações em lote...");
+        List<String> erros = new ArrayList<>(plano.getErros());
+        Map<String, String> falhasLote;
+        try {
+            falhasLote = catalogoWriter.concluirLote();
+        } catch (Exception e) {
+            falhasLote = Map.of();
+            erros.add("LOTE -> " + resumirErro(e));
+        }
 
-            atual++;
-            report(progresso, atual, total, "Processando: " + sku + " (" + atual + "/" + total + ")");
+        // Erros e contadores são consolidados na ordem das tarefas (não na ordem de término),
+        // então a lista de erros é a mesma em modo sequencial ou paralelo.
+        int criados = 0;
+        int removidos = 0;
+        Set<SKU> atualizados = new HashSet<>();
+        Set<String> falhasReportadas = new HashSet<>();
 
-            Optional<File> imgOpt = imagemRepository.obterImagem(sku);
-            if (imgOpt.isEmpty()) {
-                pendentesSemImagemLocal++;
+        for (ResultadoDaAcao r : resultados) {
+            if (r.erro != null) {
+                erros.add(r.erro);
                 continue;
             }
+            if (!r.alterou) continue;
 
-            File imgLocal = imgOpt.get();
-            ItemDeCatalogo itemDrive = drivePorSku.get(sku);
-
-            String legenda = GeradorDeLegenda.gerarLegenda(dispErp);
+            AcaoDeSincronizacao acao = r.acao;
+            String falha = (acao.getIdExterno() == null) ? null : falhasLote.get(acao.getIdExterno());
 
-            // Se não existe no Drive, cria
-            if (itemDrive == null) {
-                report(progresso, atual, total, "Criando no Drive: " + sku + " (" + atual + "/" + total + ")");
-                try {
-                    catalogoWriter.criarComImagemLocal(sku, dispErp, imgLocal);
-                    criados++;
-                } catch (Exception e) {
-                    erros.add("CRIAR " + sku + " -> " + resumirErro(e));
+            switch (acao.getTipo()) {
+                case CRIAR -> criados++;
+                case TROCAR_IMAGEM -> atualizados.add(acao.getSku());
+                case REMOVER -> {
+                    if (falha == null) removidos++;
+                    else erros.add("REMOVER " + acao.getSku() + " -> " + falha);
                 }
-                continue;
+                case ATUALIZAR_METADADOS, RENOMEAR -> {
+                    if (falha == null) atualizados.add(acao.getSku());
+                    else if (falhasReportadas.add(acao.getIdExterno())) {
+                        erros.add("ATUALIZAR " + acao.getSku() + " -> " + falha);
+                    }
+                }
+                default -> { }
             }
+        }
 
-            boolean mudouAlgo = false;
+        prog.concluir();
+        return new ResultadoSincronizacaoDTO(
+                criados,
+                atualizados.size(),
+                removidos,
+                plano.contar(AcaoDeSincronizacao.Tipo.PENDENTE_SEM_IMAGEM),
+                erros
+        );
+    }
 
-            // ✅ 2.1) Garantir que a metadata técnica (tamanhos de fábrica) esteja atualizada no Drive
-            // Isso é a “migração automática” escolhida: na próxima sync, os arquivos existentes passam a ter
-            // sku_tamanhos_fabrica e o Reader para de depender do nome (idade) para INFANTIL.
-            try {
-                report(progresso, atual, total, "Atualizando metadados: " + sku + " (" + atual + "/" + total + ")");
-                boolean metaMudou = catalogoWriter.atualizarTamanhosFabrica(itemDrive.getIdExterno(), dispErp);
-                if (metaMudou) mudouAlgo = true;
-            } catch (Exception e) {
-                erros.add("METADATA " + sku + " -> " + resumirErro(e));
-            }
+    private ResultadoDaAcao executarAcao(AcaoDeSincronizacao acao, Progresso prog) {
+        ResultadoDaAcao r = new ResultadoDaAcao(acao);
+        SKU sku = acao.getSku();
 
-            // Atualiza tamanhos/legenda se precisar
-            try {
-                ResultadoComparacaoTamanhos comp = comparador.comparar(dispErp, itemDrive);
-                if (comp != ResultadoComparacaoTamanhos.IGUAIS) {
-                    report(progresso, atual, total, "Atualizando legenda: " + sku + " (" + atual + "/" + total + ")");
-                    catalogoWriter.atualizarLegenda(itemDrive.getIdExterno(), legenda);
-                    mudouAlgo = true;
+        try {
+            switch (acao.getTipo()) {
+                case REMOVER -> {
+                    prog.avancar("Removendo do Drive: " + sku);
+                    catalogoWriter.remover(acao.getIdExterno());
+                    r.alterou = true;
                 }
-            } catch (Exception e) {
-                erros.add("LEGENDA " + sku + " -> " + resumirErro(e));
+                case ATUALIZAR_METADADOS -> {
+                    prog.avancar("Atualizando metadados: " + sku);
+                    r.alterou = catalogoWriter.atualizarTamanhosFabrica(acao.getItem(), acao.getDisponibilidade());
+                }
+                case RENOMEAR -> {
+                    prog.avancar("Atualizando legenda: " + sku);
+                    r.alterou = catalogoWriter.atualizarLegenda(acao.getItem(), acao.getNovoNome());
+                }
+                case CRIAR -> {
+                    prog.avancar("Criando no Drive: " + sku);
+                    catalogoWriter.criarComImagemLocal(sku, acao.getDisponibilidade(), acao.getImagemLocal());
+                    r.alterou = true;
+                }
+                case TROCAR_IMAGEM -> {
+                    prog.avancar("Enviando imagem: " + sku);
+                    r.alterou = catalogoWriter.trocarImagem(acao.getItem(), acao.getImagemLocal());
+                }
+                default -> { }
             }
+        } catch (Exception e) {
+            r.erro = rotuloDeErro(acao.getTipo()) + " " + sku + " -> " + resumirErro(e);
+        }
 
-            // Atualiza imagem SOMENTE se de fato for diferente (o Writer fará o "no-op" se igual)
-            try {
-                report(progresso, atual, total, "Validando imagem: " + sku + " (" + atual + "/" + total + ")");
-                catalogoWriter.trocarImagem(itemDrive.getIdExterno(), imgLocal);
-
-                // Se a imagem for igual, o writer otimizado não faz update.
-                // Aqui não temos retorno pra saber se mudou. Mantemos o comportamento atual:
-                // - tentamos publicar a imagem, e consideramos o item "atualizado" no aggregate da execução.
-                // Obs.: a melhora futura seria o writer retornar boolean (mudou/não mudou).
-                mudouAlgo = true;
-            } catch (Exception e) {
-                erros.add("IMAGEM " + sku + " -> " + resumirErro(e));
-            }
+        return r;
+    }
 
-            if (mudouAlgo) atualizados++;
+    private static String rotuloDeErro(AcaoDeSincronizacao.Tipo tipo) {
+        return switch (tipo) {
+            case ATUALIZAR_METADADOS -> "METADATA";
+            case RENOMEAR -> "LEGENDA";
+            case TROCAR_IMAGEM -> "IMAGEM";
+            default -> tipo.name();
+        };
+    }
+
+    /**
+     * Executa as tarefas e devolve os resultados NA MESMA ORDEM da lista.
+     * Com paralelismo 1 roda tudo na thread chamadora (comportamento original).
+     * emFalha converte uma exceção que escapou da tarefa em resultado (as tarefas já tratam as
+     * próprias falhas; isto é só blindagem).
+     */
+    private <T> List<T> executarTarefas(List<Callable<T>> tarefas, Function<Throwable, T> emFalha) {
+        List<T> resultados = new ArrayList<>(tarefas.size());
+
+        if (paralelismo <= 1 || tarefas.size() <= 1) {
+            for (Callable<T> t : tarefas) {
+                try {
+                    resultados.add(t.call());
+                } catch (Exception e) {
+                    resultados.add(emFalha.apply(e));
+                }
+            }
+            return resultados;
         }
 
-        report(progresso, total, total, "Concluído (" + total + "/" + total + ")");
-        return new ResultadoSincronizacaoDTO(criados, atualizados, removidos, pendentesSemImagemLocal, erros);
-    }
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(paralelismo, tarefas.size()), r -> {
+            Thread t = new Thread(r, "sincronizador-sync-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
 
-    private void report(ProgressoCallback cb, int atual, int total, String msg) {
-        if (cb == null) return;
         try {
-            cb.onProgresso(atual, Math.max(total, 1), msg == null ? "" : msg);
-        } catch (Exception ignored) {
-            // progresso nunca pode quebrar a sincronização
+            List<Future<T>> futuros = pool.invokeAll(tarefas);
+            for (Future<T> f : futuros) {
+                try {
+                    resultados.add(f.get());
+                } catch (ExecutionException e) {
+                    resultados.add(emFalha.apply(e.getCause() == null ? e : e.getCause()));
+                }
+            }
+            return resultados;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sincronização interrompida", e);
+        } finally {
+            pool.shutdownNow();
         }
     }
 
@@ -207,22 +456,72 @@ public class SincronizarCatalogoUseCase {
         }
     }
 
-    private String resumirErro(Exception e) {
+    private String resumirErro(Throwable e) {
         String msg = e.getMessage();
         if (msg == null || msg.isBlank()) return e.getClass().getSimpleName();
         msg = msg.replace("\n", " ").replace("\r", " ").trim();
         return msg.length() > 180 ? msg.substring(0, 180) + "..." : msg;
     }
 
-    private String safeSkuKey(SKU sku) {
-        if (sku == null) return "";
-        try {
-            String clube = sku.getClube() == null ? "" : sku.getClube().trim();
-            String modelo = sku.getModelo() == null ? "" : sku.getModelo().trim();
-            String tipo = (sku.getTipo() == null) ? "" : sku.getTipo().name();
-            return (clube + "|" + modelo + "|" + tipo).toUpperCase(Locale.ROOT);
-        } catch (Exception e) {
-            return String.valueOf(sku).toUpperCase(Locale.ROOT);
+    private static final class Planejamento {
+        private final PlanoDeSincronizacao plano;
+        private final TemposDeLeitura tempos;
+
+        private Planejamento(PlanoDeSincronizacao plano, TemposDeLeitura tempos) {
+            this.plano = plano;
+            this.tempos = tempos;
+        }
+    }
+
+    /**
+     * Resultado de UMA ação do plano. Só é lido depois que a tarefa termina.
+     */
+    private static final class ResultadoDaAcao {
+        private final AcaoDeSincronizacao acao;
+        private boolean alterou;
+        private String erro;
+
+        private ResultadoDaAcao(AcaoDeSincronizacao acao) {
+            this.acao = acao;
+        }
+    }
+
+    /**
+     * Progresso thread-safe: o contador só anda pra frente e o callback é chamado
+     * dentro do mesmo lock, então a barra nunca "volta" mesmo com várias threads.
+     */
+    private static final class Progresso {
+        private final ProgressoCallback cb;
+        private final int total;
+        private int atual = 0;
+
+        private Progresso(ProgressoCallback cb, int total) {
+            this.cb = cb;
+            this.total = total;
+        }
+
+        synchronized int avancar(String msg) {
+            if (atual < total) atual++;
+            report(msg);
+            return atual;
+        }
+
+        synchronized void informar(String msg) {
+            report(msg);
+        }
+
+        synchronized void concluir() {
+            atual = total;
+            report("Concluído (" + total + "/" + total + ")");
+        }
+
+        private void report(String msg) {
+            if (cb == null) return;
+            try {
+                cb.onProgresso(atual, Math.max(total, 1), msg == null ? "" : msg);
+            } catch (Exception ignored) {
+                // progresso nunca pode quebrar a sincronização
+            }
         }
     }
 }
@@ -1,5 +1,305 @@
 package com.sincronizador.config;
 
-public class AppConfig {
-    
+import com.sincronizador.infrastructure.local.OtimizadorDeImagens;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuração centralizada do app (src/main/resources/app.properties).
+ *
+ * Qualquer chave pode ser sobrescrita por system property (-Dchave=valor),
+ * o que facilita ajustar parâmetros sem recompilar.
+ */
+public final class AppConfig {
+
+    private static final String PROPERTIES_PATH = "/app.properties";
+
+    public static final String KEY_FOLDER_ID = "catalogo.folderId";
+    public static final String KEY_SYNC_PARALELISMO = "sync.paralelismo";
+    public static final String KEY_DRIVE_REQ_POR_SEGUNDO = "drive.requisicoesPorSegundo";
+    public static final String KEY_DRIVE_MAX_TENTATIVAS = "drive.maxTentativas";
+    public static final String KEY_DRIVE_INCREMENTAL = "drive.incremental";
+    public static final String KEY_DRIVE_ESPELHO = "drive.espelho";
+
+    public static final String KEY_DRIVE_UPLOAD_CHUNK_BYTES = "drive.upload.chunkBytes";
+    public static final String KEY_DRIVE_UPLOAD_RESUMIVEL_A_PARTIR = "drive.upload.resumivelAPartirDeBytes";
+    public static final String KEY_DRIVE_UPLOAD_SESSOES = "drive.upload.sessoes";
+
+    public static final String KEY_IMAGENS_INDICE_MD5 = "imagens.indiceMd5";
+    public static final String KEY_IMAGENS_OTIMIZAR = "imagens.otimizar";
+    public static final String KEY_IMAGENS_OTIMIZADAS = "imagens.otimizadas";
+    public static final String KEY_IMAGENS_MAX_DIMENSAO = "imagens.maxDimensao";
+    public static final String KEY_IMAGENS_QUALIDADE = "imagens.qualidade";
+    public static final String KEY_IMAGENS_FORMATO = "imagens.formato";
+
+    public static final String KEY_CACHE_TTL_SEGUNDOS = "cache.ttlSegundos";
+
+    public static final String KEY_CLI_INTERVALO_MINUTOS = "cli.intervaloMinutos";
+
+    public static final String KEY_ERP_JDBC_URL = "erp.jdbcUrl";
+    public static final String KEY_ERP_USUARIO = "erp.usuario";
+    public static final String KEY_ERP_SENHA = "erp.senha";
+    public static final String KEY_ERP_SENHA_ARQUIVO = "erp.senhaArquivo";
+    public static final String KEY_ERP_POOL_TAMANHO = "erp.pool.tamanho";
+    public static final String KEY_ERP_POOL_MINIMO_OCIOSO = "erp.pool.minimoOcioso";
+    public static final String KEY_ERP_FETCH_SIZE = "erp.fetchSize";
+
+    // a senha vem do ambiente ou de um arquivo fora do repositório (erp.senhaArquivo)
+    private static final String ENV_ERP_SENHA = "SINCRONIZADOR_ERP_SENHA";
+
+    public static final String KEY_ERP_COLUNA_ATUALIZACAO = "erp.colunaAtualizacao";
+    public static final String KEY_ERP_RECARGA_COMPLETA_MIN = "erp.recargaCompletaMinutos";
+
+    private static final String PADRAO_DRIVE_ESPELHO = "./data/catalogo/drive-espelho.json";
+    private static final String PADRAO_DRIVE_UPLOAD_SESSOES = "./data/catalogo/uploads-pendentes.properties";
+    private static final String PADRAO_IMAGENS_INDICE_MD5 = "./data/catalogo/imagens.md5.properties";
+    private static final String PADRAO_IMAGENS_OTIMIZADAS = "./data/catalogo/otimizadas";
+
+    private static final int PADRAO_SYNC_PARALELISMO = 4;
+
+    private final Properties props;
+
+    private AppConfig(Properties props) {
+        this.props = props;
+    }
+
+    public static AppConfig carregar() {
+        Properties props = new Properties();
+
+        try (InputStream in = AppConfig.class.getResourceAsStream(PROPERTIES_PATH)) {
+            if (in == null) {
+                throw new IllegalStateException(
+                        "Arquivo " + PROPERTIES_PATH + " não encontrado. " +
+                                "Crie em src/main/resources/app.properties e defina " + KEY_FOLDER_ID + "."
+                );
+            }
+            props.load(in);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Falha ao carregar " + PROPERTIES_PATH, e);
+        }
+
+        return new AppConfig(props);
+    }
+
+    public String getFolderIdObrigatorio() {
+        String folderId = obter(KEY_FOLDER_ID, null);
+        if (folderId == null || folderId.isEmpty() || folderId.contains("COLE_AQUI")) {
+            throw new IllegalStateException(
+                    "Configuração inválida: " + KEY_FOLDER_ID + " não está preenchido em " + PROPERTIES_PATH + "."
+            );
+        }
+        return folderId;
+    }
+
+    /**
+     * Quantos SKUs a sincronização processa em paralelo (1 = sequencial).
+     */
+    public int getSyncParalelismo() {
+        return Math.max(1, obterInt(KEY_SYNC_PARALELISMO, PADRAO_SYNC_PARALELISMO));
+    }
+
+    /**
+     * Taxa inicial do rate limiter do Drive (req/s); o AIMD ajusta a partir daqui.
+     */
+    public double getDriveRequisicoesPorSegundo() {
+        String v = obter(KEY_DRIVE_REQ_POR_SEGUNDO, null);
+        if (v == null) return DriveConfig.PADRAO_REQUISICOES_POR_SEGUNDO;
+        try {
+            double taxa = Double.parseDouble(v);
+            if (taxa <= 0) throw new NumberFormatException();
+            return taxa;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuração inválida: " + KEY_DRIVE_REQ_POR_SEGUNDO + " deve ser > 0 (" + v + ").");
+        }
+    }
+
+    public int getDriveMaxTentativas() {
+        return Math.max(0, obterInt(KEY_DRIVE_MAX_TENTATIVAS, DriveConfig.PADRAO_MAX_TENTATIVAS));
+    }
+
+    /**
+     * Leitura incremental do catálogo (Changes API + espelho local).
+     */
+    public boolean isDriveIncremental() {
+        return Boolean.parseBoolean(obter(KEY_DRIVE_INCREMENTAL, "true"));
+    }
+
+    public Path getDriveEspelho() {
+        return Paths.get(obter(KEY_DRIVE_ESPELHO, PADRAO_DRIVE_ESPELHO));
+    }
+
+    /**
+     * Tamanho de cada PUT do upload resumível (arredondado para múltiplo de 256 KiB).
+     */
+    public int getDriveUploadChunkBytes() {
+        return Math.max(256 * 1024, obterInt(KEY_DRIVE_UPLOAD_CHUNK_BYTES, 4 * 1024 * 1024));
+    }
+
+    /**
+     * Imagens maiores que isso usam upload resumível; as menores vão num request só.
+     */
+    public long getDriveUploadResumivelAPartirDeBytes() {
+        return Math.max(0, obterInt(KEY_DRIVE_UPLOAD_RESUMIVEL_A_PARTIR, 1024 * 1024));
+    }
+
+    public Path getDriveUploadSessoes() {
+        return Paths.get(obter(KEY_DRIVE_UPLOAD_SESSOES, PADRAO_DRIVE_UPLOAD_SESSOES));
+    }
+
+    /**
+     * Índice persistente de MD5 das imagens locais (caminho + tamanho + mtime).
+     */
+    public Path getImagensIndiceMd5() {
+        return Paths.get(obter(KEY_IMAGENS_INDICE_MD5, PADRAO_IMAGENS_INDICE_MD5));
+    }
+
+    /**
+     * Sobe a versão reduzida/recomprimida das imagens em vez do original.
+     */
+    public boolean isImagensOtimizar() {
+        return Boolean.parseBoolean(obter(KEY_IMAGENS_OTIMIZAR, "true"));
+    }
+
+    public Path getImagensOtimizadas() {
+        return Paths.get(obter(KEY_IMAGENS_OTIMIZADAS, PADRAO_IMAGENS_OTIMIZADAS));
+    }
+
+    public int getImagensMaxDimensao() {
+        return Math.max(64, obterInt(KEY_IMAGENS_MAX_DIMENSAO, 1600));
+    }
+
+    /**
+     * Qualidade JPEG/WebP em % (1-100).
+     */
+    public float getImagensQualidade() {
+        return Math.max(1, Math.min(100, obterInt(KEY_IMAGENS_QUALIDADE, 85))) / 100f;
+    }
+
+    public OtimizadorDeImagens.Formato getImagensFormato() {
+        String v = obter(KEY_IMAGENS_FORMATO, "jpeg").toUpperCase(Locale.ROOT);
+        try {
+            return OtimizadorDeImagens.Formato.valueOf(v.equals("JPG") ? "JPEG" : v);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Configuração inválida: " + KEY_IMAGENS_FORMATO + " deve ser jpeg ou webp (" + v + ").");
+        }
+    }
+
+    /**
+     * Validade do snapshot compartilhado de ERP/Drive entre status e sincronização.
+     */
+    public long getCacheTtlMs() {
+        return Math.max(0, obterInt(KEY_CACHE_TTL_SEGUNDOS, 60)) * 1000L;
+    }
+
+    /**
+     * Modo sem janela: intervalo entre sincronizações (0 = roda uma vez e sai).
+     */
+    public int getCliIntervaloMinutos() {
+        return Math.max(0, obterInt(KEY_CLI_INTERVALO_MINUTOS, 0));
+    }
+
+    public String getErpJdbcUrl() {
+        String url = obter(KEY_ERP_JDBC_URL, null);
+        if (url == null) {
+            throw new IllegalStateException(
+                    "Configuração inválida: " + KEY_ERP_JDBC_URL + " não está preenchido em " + PROPERTIES_PATH + "."
+            );
+        }
+        return url;
+    }
+
+    public String getErpUsuario() {
+        String usuario = obter(KEY_ERP_USUARIO, null);
+        if (usuario == null) {
+            throw new IllegalStateException(
+                    "Configuração inválida: " + KEY_ERP_USUARIO + " não está preenchido (em " + PROPERTIES_PATH
+                            + " ou -D" + KEY_ERP_USUARIO + ")."
+            );
+        }
+        return usuario;
+    }
+
+    /**
+     * Ordem: variável de ambiente SINCRONIZADOR_ERP_SENHA, erp.senha (-D ou app.properties, que vai vazio
+     * no repositório) e, por último, a primeira linha do arquivo em erp.senhaArquivo.
+     */
+    public String getErpSenha() {
+        String env = System.getenv(ENV_ERP_SENHA);
+        if (env != null && !env.isBlank()) return env;
+
+        String senha = obter(KEY_ERP_SENHA, null);
+        if (senha != null) return senha;
+
+        String arquivo = obter(KEY_ERP_SENHA_ARQUIVO, null);
+        if (arquivo != null) {
+            try {
+                String conteudo = Files.readString(Paths.get(arquivo), StandardCharsets.UTF_8);
+                String primeiraLinha = conteudo.lines().findFirst().orElse("").strip();
+                if (!primeiraLinha.isEmpty()) return primeiraLinha;
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível ler a senha do ERP em " + arquivo + ".", e);
+            }
+        }
+
+        throw new IllegalStateException(
+                "Senha do ERP não configurada: defina a variável de ambiente " + ENV_ERP_SENHA
+                        + " ou aponte " + KEY_ERP_SENHA_ARQUIVO + " para um arquivo com a senha."
+        );
+    }
+
+    public int getErpPoolTamanho() {
+        return Math.max(1, obterInt(KEY_ERP_POOL_TAMANHO, 4));
+    }
+
+    public int getErpPoolMinimoOcioso() {
+        return Math.max(0, obterInt(KEY_ERP_POOL_MINIMO_OCIOSO, 1));
+    }
+
+    /**
+     * Linhas por ida ao servidor na leitura do estoque (0 = ResultSet inteiro em memória).
+     */
+    public int getErpFetchSize() {
+        return Math.max(0, obterInt(KEY_ERP_FETCH_SIZE, 1000));
+    }
+
+    /**
+     * Coluna de "atualizado em" da tabela produtos. Vazio = sem change-capture (lê a tabela inteira).
+     */
+    public String getErpColunaAtualizacao() {
+        return obter(KEY_ERP_COLUNA_ATUALIZACAO, null);
+    }
+
+    /**
+     * No modo change-capture, de quanto em quanto tempo refazer a carga completa (pega linhas apagadas).
+     */
+    public long getErpRecargaCompletaMs() {
+        return TimeUnit.MINUTES.toMillis(Math.max(0, obterInt(KEY_ERP_RECARGA_COMPLETA_MIN, 60)));
+    }
+
+    public String obter(String chave, String padrao) {
+        String v = System.getProperty(chave);
+        if (v == null || v.isBlank()) v = props.getProperty(chave);
+        if (v == null || v.isBlank()) return padrao;
+        return v.trim();
+    }
+
+    public int obterInt(String chave, int padrao) {
+        String v = obter(chave, null);
+        if (v == null) return padrao;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Configuração inválida: " + chave + " deve ser numérico (" + v + ").");
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package com.sincronizador.config;
+
+import com.google.api.services.drive.Drive;
+import com.sincronizador.application.port.ImagemRepository;
+import com.sincronizador.application.usecase.AssociarImagemAoCatalogoUseCase;
+import com.sincronizador.application.usecase.GerarStatusDoCatalogoUseCase;
+import com.sincronizador.application.usecase.SincronizarCatalogoUseCase;
+import com.sincronizador.infrastructure.cache.CacheCatalogoReader;
+import com.sincronizador.infrastructure.cache.CacheEstoqueReader;
+import com.sincronizador.infrastructure.cache.InvalidaCacheCatalogoWriter;
+import com.sincronizador.infrastructure.drive.DriveCatalogoReader;
+import com.sincronizador.infrastructure.drive.DriveCatalogoWriter;
+import com.sincronizador.infrastructure.drive.DriveRateLimiter;
+import com.sincronizador.infrastructure.drive.DriveUploadResumivel;
+import com.sincronizador.infrastructure.erp.ErpDataSourceFactory;
+import com.sincronizador.infrastructure.erp.ErpEstoqueReader;
+import com.sincronizador.infrastructure.local.JournalImagemRepository;
+import com.sincronizador.infrastructure.local.OtimizadorDeImagens;
+import com.sincronizador.infrastructure.util.IndiceMd5;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Montagem das implementações das portas + use cases, compartilhada pela tela (App)
+ * e pelo modo sem janela (SincronizadorCli).
+ *
+ * close() libera o que precisa ser fechado/salvo (pool do ERP, índice de md5, watcher das imagens).
+ */
+public final class Componentes implements AutoCloseable {
+
+    private final DriveRateLimiter driveLimiter;
+    private final DriveUploadResumivel uploadResumivel;
+
+    private final HikariDataSource erpDataSource;
+    private final IndiceMd5 indiceMd5;
+    private final JournalImagemRepository imagemRepo;
+
+    private final GerarStatusDoCatalogoUseCase gerarStatus;
+    private final SincronizarCatalogoUseCase sincronizar;
+    private final AssociarImagemAoCatalogoUseCase associarImagem;
+
+    /**
+     * @param interativo true = pode abrir o navegador para o OAuth (app com janela);
+     *                   false = só usa o token já salvo (modo agendado)
+     */
+    public static Componentes montar(AppConfig config, boolean interativo) {
+        Objects.requireNonNull(config, "config não pode ser nulo");
+        return new Componentes(config, interativo);
+    }
+
+    private Componentes(AppConfig config, boolean interativo) {
+        String folderId = config.getFolderIdObrigatorio();
+
+        // 1) Client do Drive
+        // ✅ um único rate limiter para Reader/Writer: o AIMD enxerga todo o tráfego do app
+        this.driveLimiter = new DriveRateLimiter(config.getDriveRequisicoesPorSegundo());
+        Drive drive = interativo
+                ? DriveConfig.criarDrive(driveLimiter, config.getDriveMaxTentativas())
+                : DriveConfig.criarDriveSemInteracao(driveLimiter, config.getDriveMaxTentativas());
+
+        // 2) Infra (implementações das portas)
+        // ✅ pool de conexões do ERP: refresh da tabela e sync reaproveitam conexões já abertas
+        this.erpDataSource = ErpDataSourceFactory.criar(
+                config.getErpJdbcUrl(),
+                config.getErpUsuario(),
+                config.getErpSenha(),
+                config.getErpPoolTamanho(),
+                config.getErpPoolMinimoOcioso()
+        );
+
+        try {
+            // ✅ com erp.colunaAtualizacao preenchido, só o delta do ERP é lido a cada refresh
+            var erpReader = new ErpEstoqueReader(
+                    erpDataSource,
+                    config.getErpColunaAtualizacao(),
+                    config.getErpRecargaCompletaMs(),
+                    config.getErpFetchSize());
+            // ✅ incremental: só o delta da Changes API desde a última leitura (espelho em disco)
+            var driveReader = config.isDriveIncremental()
+                    ? new DriveCatalogoReader(drive, folderId, config.getDriveEspelho())
+                    : new DriveCatalogoReader(drive, folderId);
+
+            // ✅ snapshot compartilhado: carregar a tabela e sincronizar logo em seguida lê cada fonte uma vez só;
+            // qualquer escrita no Drive invalida o snapshot do catálogo
+            var estoqueReader = new CacheEstoqueReader(erpReader, config.getCacheTtlMs());
+            var catalogoReader = new CacheCatalogoReader(driveReader, config.getCacheTtlMs());
+            // ✅ md5 das imagens locais só é recalculado quando o arquivo muda (tamanho/mtime)
+            this.indiceMd5 = new IndiceMd5(config.getImagensIndiceMd5());
+            // ✅ imagens grandes sobem em pedaços; sessões interrompidas são retomadas na próxima sync
+            this.uploadResumivel = new DriveUploadResumivel(
+                    drive,
+                    config.getDriveUploadChunkBytes(),
+                    config.getDriveUploadResumivelAPartirDeBytes(),
+                    config.getDriveUploadSessoes());
+            // ✅ o Drive recebe a versão reduzida/recomprimida (cache em disco pelo md5 da origem)
+            var otimizador = config.isImagensOtimizar()
+                    ? new OtimizadorDeImagens(
+                            config.getImagensOtimizadas(),
+                            config.getImagensMaxDimensao(),
+                            config.getImagensQualidade(),
+                            config.getImagensFormato(),
+                            indiceMd5,
+                            Runtime.getRuntime().availableProcessors())
+                    : null;
+            var driveWriter = new DriveCatalogoWriter(drive, folderId, indiceMd5, uploadResumivel, otimizador);
+            var catalogoWriter = new InvalidaCacheCatalogoWriter(driveWriter, catalogoReader);
+
+            // 3) Repositório local de imagem (associação permanente)
+            // ✅ associações em mapa concorrente + journal append-only (mesmo imagens.properties de antes)
+            this.imagemRepo = new JournalImagemRepository();
+
+            // 4) Use cases (regras de aplicação)
+            this.gerarStatus = new GerarStatusDoCatalogoUseCase(estoqueReader, catalogoReader);
+            this.sincronizar = new SincronizarCatalogoUseCase(
+                    estoqueReader, catalogoReader, catalogoWriter, imagemRepo, config.getSyncParalelismo());
+            this.associarImagem = new AssociarImagemAoCatalogoUseCase(imagemRepo);
+
+        } catch (RuntimeException e) {
+            erpDataSource.close();
+            throw e;
+        }
+    }
+
+    public GerarStatusDoCatalogoUseCase getGerarStatus() {
+        return gerarStatus;
+    }
+
+    public SincronizarCatalogoUseCase getSincronizar() {
+        return sincronizar;
+    }
+
+    public AssociarImagemAoCatalogoUseCase getAssociarImagem() {
+        return associarImagem;
+    }
+
+    public ImagemRepository getImagemRepository() {
+        return imagemRepo;
+    }
+
+    // métricas do rate limiter (tempo segurado por throttling) + uploads em pedaços
+    public String getMetricasDrive() {
+        return driveLimiter.getMetricas() + "\n" + uploadResumivel.getResumo();
+    }
+
+    // métricas por arquivo dos últimos uploads em pedaços (mais antigo primeiro)
+    public List<DriveUploadResumivel.MetricaUpload> getUltimosUploads() {
+        return uploadResumivel.getUltimosUploads();
+    }
+
+    @Override
+    public void close() {
+        imagemRepo.fechar();
+        indiceMd5.salvar();
+        erpDataSource.close();
+    }
+}
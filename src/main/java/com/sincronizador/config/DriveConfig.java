@@ -4,6 +4,7 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
 import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
@@ -11,6 +12,8 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
+import com.sincronizador.infrastructure.drive.DriveRateLimiter;
+import com.sincronizador.infrastructure.drive.DriveThrottlingInitializer;
 
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
@@ -25,41 +28,91 @@ public final class DriveConfig {
 
     // salva o token aqui (pra não logar toda vez)
     private static final java.io.File TOKENS_DIR = Paths.get("tokens").toFile();
+    private static final String USUARIO = "user";
+
+    public static final double PADRAO_REQUISICOES_POR_SEGUNDO = 8;
+    public static final int PADRAO_MAX_TENTATIVAS = 6;
 
     private DriveConfig() {}
 
     public static Drive criarDrive() {
+        return criarDrive(new DriveRateLimiter(PADRAO_REQUISICOES_POR_SEGUNDO), PADRAO_MAX_TENTATIVAS);
+    }
+
+    /**
+     * Cria o client do Drive com o rate limiter compartilhado na frente de TODAS as chamadas
+     * (leitura, escrita, metadata e batch), com retentativa + backoff para throttling e 5xx.
+     */
+    public static Drive criarDrive(DriveRateLimiter limiter, int maxTentativas) {
         try {
             var httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-
-            GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(
-                    JSON_FACTORY,
-                    new InputStreamReader(new FileInputStream("credentials.json"))
-            );
-
-            GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
-                    httpTransport,
-                    JSON_FACTORY,
-                    clientSecrets,
-                    List.of(DriveScopes.DRIVE) // precisa escrever (upload/update)
-            )
-                    .setDataStoreFactory(new FileDataStoreFactory(TOKENS_DIR))
-                    .setAccessType("offline")
-                    .build();
+            GoogleAuthorizationCodeFlow flow = criarFlow(httpTransport);
 
             LocalServerReceiver receiver = new LocalServerReceiver.Builder()
                     .setPort(8888)
                     .build();
 
             Credential credential = new AuthorizationCodeInstalledApp(flow, receiver)
-                    .authorize("user");
+                    .authorize(USUARIO);
 
-            return new Drive.Builder(httpTransport, JSON_FACTORY, credential)
-                    .setApplicationName(APPLICATION_NAME)
-                    .build();
+            return montar(httpTransport, credential, limiter, maxTentativas);
 
         } catch (GeneralSecurityException | java.io.IOException e) {
             throw new RuntimeException("Erro ao autenticar no Google Drive via OAuth", e);
         }
     }
+
+    /**
+     * Sem janela/navegador (modo agendado): usa só o token já salvo em tokens/.
+     * Se não houver token, falha — é preciso autorizar uma vez pelo app com janela.
+     */
+    public static Drive criarDriveSemInteracao(DriveRateLimiter limiter, int maxTentativas) {
+        try {
+            var httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+            GoogleAuthorizationCodeFlow flow = criarFlow(httpTransport);
+
+            Credential credential = flow.loadCredential(USUARIO);
+            if (credential == null
+                    || (credential.getRefreshToken() == null && credential.getAccessToken() == null)) {
+                throw new IllegalStateException(
+                        "Nenhum token do Google Drive salvo em " + TOKENS_DIR.getAbsolutePath()
+                                + ". Abra o app com janela uma vez para autorizar o acesso.");
+            }
+
+            return montar(httpTransport, credential, limiter, maxTentativas);
+
+        } catch (GeneralSecurityException | java.io.IOException e) {
+            throw new RuntimeException("Erro ao carregar credenciais salvas do Google Drive", e);
+        }
+    }
+
+    private static GoogleAuthorizationCodeFlow criarFlow(NetHttpTransport httpTransport) throws java.io.IOException {
+        GoogleClientSecrets clientSecrets;
+        try (var reader = new InputStreamReader(new FileInputStream("credentials.json"))) {
+            clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, reader);
+        }
+
+        return new GoogleAuthorizationCodeFlow.Builder(
+                httpTransport,
+                JSON_FACTORY,
+                clientSecrets,
+                List.of(DriveScopes.DRIVE) // precisa escrever (upload/update)
+        )
+                .setDataStoreFactory(new FileDataStoreFactory(TOKENS_DIR))
+                .setAccessType("offline")
+                .build();
+    }
+
+    private static Drive montar(
+            NetHttpTransport httpTransport,
+            Credential credential,
+            DriveRateLimiter limiter,
+            int maxTentativas
+    ) {
+        var initializer = new DriveThrottlingInitializer(credential, limiter, maxTentativas);
+
+        return new Drive.Builder(httpTransport, JSON_FACTORY, initializer)
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+    }
 }
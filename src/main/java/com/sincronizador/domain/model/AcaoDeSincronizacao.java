@@ -1,11 +1,18 @@
 package com.sincronizador.domain.model;
 
+import java.io.File;
+import java.util.Objects;
+
 public class AcaoDeSincronizacao {
 
     public enum Tipo {
         CRIAR,
         ATUALIZAR,
+        RENOMEAR,               // legenda (nome do arquivo) desatualizada
+        ATUALIZAR_METADADOS,    // tamanhos de fábrica na metadata técnica
+        TROCAR_IMAGEM,          // conteúdo diferente da imagem local
         REMOVER,
+        PENDENTE_SEM_IMAGEM,    // existe no ERP, mas não há imagem local para publicar
         NENHUMA
     }
 
@@ -13,10 +20,111 @@ public class AcaoDeSincronizacao {
     private final SKU sku;
     private final String motivo;
 
+    // dados para executar a ação (nulos quando não se aplicam ao tipo)
+    private final String idExterno;
+    private final Disponibilidade disponibilidade;
+    private final ItemDeCatalogo item;
+    private final File imagemLocal;
+    private final String novoNome;
+
+    // bytes que a ação deve enviar (0 para ações só de metadata)
+    private final long bytesEstimados;
+
     public AcaoDeSincronizacao(Tipo tipo, SKU sku, String motivo) {
+        this(tipo, sku, motivo, null, null, null, null, null, 0);
+    }
+
+    private AcaoDeSincronizacao(
+            Tipo tipo,
+            SKU sku,
+            String motivo,
+            String idExterno,
+            Disponibilidade disponibilidade,
+            ItemDeCatalogo item,
+            File imagemLocal,
+            String novoNome,
+            long bytesEstimados
+    ) {
         this.tipo = tipo;
         this.sku = sku;
         this.motivo = motivo;
+        this.idExterno = idExterno;
+        this.disponibilidade = disponibilidade;
+        this.item = item;
+        this.imagemLocal = imagemLocal;
+        this.novoNome = novoNome;
+        this.bytesEstimados = Math.max(0, bytesEstimados);
+    }
+
+    public static AcaoDeSincronizacao criar(
+            Disponibilidade disponibilidade, File imagemLocal, long bytesEstimados, String motivo) {
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
+        Objects.requireNonNull(imagemLocal, "imagemLocal não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.CRIAR, disponibilidade.getSku(), motivo,
+                null, disponibilidade, null, imagemLocal, null, bytesEstimados);
+    }
+
+    /**
+     * Decisão da comparação ERP x catálogo: criar, ainda sem a imagem que será enviada.
+     */
+    public static AcaoDeSincronizacao ausenteNoCatalogo(Disponibilidade disponibilidade, String motivo) {
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.CRIAR, disponibilidade.getSku(), motivo,
+                null, disponibilidade, null, null, null, 0);
+    }
+
+    /**
+     * Decisão da comparação ERP x catálogo: tamanhos divergentes (a legenda precisa acompanhar).
+     */
+    public static AcaoDeSincronizacao atualizar(
+            ItemDeCatalogo item, Disponibilidade disponibilidade, String motivo) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.ATUALIZAR, item.getSku(), motivo,
+                item.getIdExterno(), disponibilidade, item, null, null, 0);
+    }
+
+    /**
+     * Decisão da comparação ERP x catálogo: pareados e com os mesmos tamanhos.
+     */
+    public static AcaoDeSincronizacao nenhuma(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.NENHUMA, item.getSku(), null,
+                item.getIdExterno(), disponibilidade, item, null, null, 0);
+    }
+
+    public static AcaoDeSincronizacao renomear(ItemDeCatalogo item, String novoNome, String motivo) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(novoNome, "novoNome não pode ser nulo");
+        return new AcaoDeSincronizacao(Tipo.RENOMEAR, item.getSku(), motivo,
+                item.getIdExterno(), null, item, null, novoNome, 0);
+    }
+
+    public static AcaoDeSincronizacao atualizarMetadados(
+            ItemDeCatalogo item, Disponibilidade disponibilidade, String motivo) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.ATUALIZAR_METADADOS, item.getSku(), motivo,
+                item.getIdExterno(), disponibilidade, item, null, null, 0);
+    }
+
+    public static AcaoDeSincronizacao trocarImagem(
+            ItemDeCatalogo item, File imagemLocal, long bytesEstimados, String motivo) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(imagemLocal, "imagemLocal não pode ser nula");
+        return new AcaoDeSincronizacao(Tipo.TROCAR_IMAGEM, item.getSku(), motivo,
+                item.getIdExterno(), null, item, imagemLocal, null, bytesEstimados);
+    }
+
+    public static AcaoDeSincronizacao remover(ItemDeCatalogo item, String motivo) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        return new AcaoDeSincronizacao(Tipo.REMOVER, item.getSku(), motivo,
+                item.getIdExterno(), null, item, null, null, 0);
+    }
+
+    public static AcaoDeSincronizacao pendenteSemImagem(SKU sku, String motivo) {
+        return new AcaoDeSincronizacao(Tipo.PENDENTE_SEM_IMAGEM, sku, motivo);
     }
 
     public Tipo getTipo() {
@@ -30,4 +138,40 @@ public class AcaoDeSincronizacao {
     public String getMotivo() {
         return motivo;
     }
+
+    public String getIdExterno() {
+        return idExterno;
+    }
+
+    public Disponibilidade getDisponibilidade() {
+        return disponibilidade;
+    }
+
+    public ItemDeCatalogo getItem() {
+        return item;
+    }
+
+    public File getImagemLocal() {
+        return imagemLocal;
+    }
+
+    public String getNovoNome() {
+        return novoNome;
+    }
+
+    public long getBytesEstimados() {
+        return bytesEstimados;
+    }
+
+    /**
+     * Ação que altera algo na origem (o que o executor precisa rodar).
+     */
+    public boolean alteraCatalogo() {
+        return tipo != Tipo.NENHUMA && tipo != Tipo.PENDENTE_SEM_IMAGEM;
+    }
+
+    @Override
+    public String toString() {
+        return tipo + " " + sku + (motivo == null ? "" : " (" + motivo + ")");
+    }
 }
@@ -0,0 +1,68 @@
+package com.sincronizador.domain.model;
+
+import com.sincronizador.domain.valueobject.Tamanho;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resultado detalhado da comparação ERP x catálogo, com os tamanhos em máscara de bits
+ * (bit = Tamanho.getBit()).
+ *
+ * - adicionados: disponíveis no ERP e ausentes no catálogo;
+ * - removidos: no catálogo e não mais disponíveis no ERP.
+ */
+public class DiferencaDeTamanhos {
+
+    private final ResultadoComparacaoTamanhos resultado;
+    private final int adicionados;
+    private final int removidos;
+
+    public DiferencaDeTamanhos(ResultadoComparacaoTamanhos resultado, int adicionados, int removidos) {
+        this.resultado = resultado;
+        this.adicionados = adicionados;
+        this.removidos = removidos;
+    }
+
+    public ResultadoComparacaoTamanhos getResultado() {
+        return resultado;
+    }
+
+    public int getAdicionados() {
+        return adicionados;
+    }
+
+    public int getRemovidos() {
+        return removidos;
+    }
+
+    public Set<Tamanho> getTamanhosAdicionados() {
+        return Tamanho.deMascara(adicionados);
+    }
+
+    public Set<Tamanho> getTamanhosRemovidos() {
+        return Tamanho.deMascara(removidos);
+    }
+
+    /**
+     * Ex: "+P,GG -2GG" (vazio quando não há diferença).
+     */
+    public String resumir() {
+        String mais = exibir(adicionados);
+        String menos = exibir(removidos);
+
+        if (mais.isEmpty()) return menos.isEmpty() ? "" : "-" + menos;
+        return menos.isEmpty() ? "+" + mais : "+" + mais + " -" + menos;
+    }
+
+    private static String exibir(int mascara) {
+        return Tamanho.deMascara(mascara).stream()
+                .map(Tamanho::getValorExibicao)
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public String toString() {
+        return resultado + (resultado == ResultadoComparacaoTamanhos.DIFERENTES ? " (" + resumir() + ")" : "");
+    }
+}
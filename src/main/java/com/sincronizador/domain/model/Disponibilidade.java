@@ -3,19 +3,23 @@ package com.sincronizador.domain.model;
 import com.sincronizador.domain.valueobject.Tamanho;
 import com.sincronizador.domain.valueobject.Tipo;
 
-import java.util.EnumSet;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class Disponibilidade {
 
     private final SKU sku;
-    private final Set<Tamanho> tamanhosDisponiveis;
 
-    private Disponibilidade(SKU sku, Set<Tamanho> tamanhosDisponiveis) {
+    // ✅ tamanhos disponíveis como máscara (bit = Tamanho.getBit()): comparar/filtrar é uma operação de int
+    private final int mascara;
+
+    // montado só quando alguém pede o conjunto (a sync e a comparação usam a máscara)
+    private Set<Tamanho> tamanhosDisponiveis;
+
+    private Disponibilidade(SKU sku, int mascara) {
         this.sku = sku;
-        this.tamanhosDisponiveis = tamanhosDisponiveis;
+        this.mascara = mascara;
     }
 
     public SKU getSku() {
@@ -23,56 +27,55 @@ public class Disponibilidade {
     }
 
     public Set<Tamanho> getTamanhosDisponiveis() {
-        return tamanhosDisponiveis;
+        // corrida benigna: duas threads podem montar o mesmo conjunto (imutável), vale qualquer um
+        Set<Tamanho> tamanhos = tamanhosDisponiveis;
+        if (tamanhos == null) {
+            tamanhos = Collections.unmodifiableSet(Tamanho.deMascara(mascara));
+            tamanhosDisponiveis = tamanhos;
+        }
+        return tamanhos;
+    }
+
+    public int getMascara() {
+        return mascara;
     }
 
     public boolean estaDisponivel() {
-        return !tamanhosDisponiveis.isEmpty();
+        return mascara != 0;
     }
 
     /**
      * Fábrica de Disponibilidade a partir do estoque
      */
     public static Disponibilidade aPartirDoEstoque(Estoque estoque) {
-        Tipo tipo = estoque.getSku().getTipo();
-
-        Set<Tamanho> tamanhosValidos = tamanhosValidosPorTipo(tipo);
+        int disponiveis = 0;
+        for (Map.Entry<Tamanho, Integer> e : estoque.getQuantidades().entrySet()) {
+            Integer quantidade = e.getValue();
+            if (e.getKey() != null && quantidade != null && quantidade > 0) {
+                disponiveis |= e.getKey().getBit();
+            }
+        }
 
-        Set<Tamanho> disponiveis = estoque.getQuantidades().entrySet()
-                .stream()
-                .filter(e -> e.getValue() > 0)
-                .map(Map.Entry::getKey)
-                .filter(tamanhosValidos::contains)
-                .collect(Collectors.toSet());
+        return aPartirDaMascara(estoque.getSku(), disponiveis);
+    }
 
-        return new Disponibilidade(estoque.getSku(), disponiveis);
+    /**
+     * Fábrica a partir de uma máscara de tamanhos (ex.: lida da metadata do catálogo).
+     * Tamanhos que não valem para o tipo do SKU são descartados.
+     */
+    public static Disponibilidade aPartirDaMascara(SKU sku, int mascara) {
+        return new Disponibilidade(sku, mascara & mascaraValidaPorTipo(sku.getTipo()));
     }
 
     /**
      * Define quais tamanhos são permitidos para cada tipo
      */
-    private static Set<Tamanho> tamanhosValidosPorTipo(Tipo tipo) {
+    private static int mascaraValidaPorTipo(Tipo tipo) {
         if (tipo == Tipo.INFANTIL) {
-            return EnumSet.of(
-                    Tamanho._16,
-                    Tamanho._18,
-                    Tamanho._20,
-                    Tamanho._22,
-                    Tamanho._24,
-                    Tamanho._26,
-                    Tamanho._28
-            );
+            return Tamanho.MASCARA_INFANTIL;
         }
 
         // Masculino e Feminino
-        return EnumSet.of(
-                Tamanho.P,
-                Tamanho.M,
-                Tamanho.G,
-                Tamanho.GG,
-                Tamanho._2GG,
-                Tamanho._3GG,
-                Tamanho._4GG
-        );
+        return Tamanho.MASCARA_ADULTO;
     }
 }
@@ -1,6 +1,7 @@
 package com.sincronizador.domain.model;
 
 import java.util.Objects;
+import java.util.Optional;
 
 public class ItemDeCatalogo {
 
@@ -8,10 +9,18 @@ public class ItemDeCatalogo {
     private final Disponibilidade disponibilidade;
     private final String idExterno;
 
+    // estado remoto lido junto com a listagem (pode não existir)
+    private final SnapshotRemoto snapshotRemoto;
+
     public ItemDeCatalogo(SKU sku, Disponibilidade disponibilidade, String idExterno) {
+        this(sku, disponibilidade, idExterno, null);
+    }
+
+    public ItemDeCatalogo(SKU sku, Disponibilidade disponibilidade, String idExterno, SnapshotRemoto snapshotRemoto) {
         this.sku = Objects.requireNonNull(sku, "sku não pode ser nulo");
         this.disponibilidade = Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
         this.idExterno = Objects.requireNonNull(idExterno, "idExterno não pode ser nulo");
+        this.snapshotRemoto = snapshotRemoto;
     }
 
     public SKU getSku() {
@@ -26,6 +35,10 @@ public class ItemDeCatalogo {
         return idExterno;
     }
 
+    public Optional<SnapshotRemoto> getSnapshotRemoto() {
+        return Optional.ofNullable(snapshotRemoto);
+    }
+
     public boolean estaAtivo() {
         return disponibilidade.estaDisponivel();
     }
@@ -2,21 +2,85 @@ package com.sincronizador.domain.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class PlanoDeSincronizacao {
 
     private final List<AcaoDeSincronizacao> acoes = new ArrayList<>();
 
+    // falhas ao decidir (o item fica fora do plano e o erro vai para o resultado da sync)
+    private final List<String> erros = new ArrayList<>(0);
+
     public void adicionar(AcaoDeSincronizacao acao) {
         acoes.add(acao);
     }
 
+    public void adicionarErro(String erro) {
+        erros.add(erro);
+    }
+
+    /**
+     * Junta ao fim deste plano as ações e erros de outro (ex.: plano parcial de um SKU).
+     */
+    public void incorporar(PlanoDeSincronizacao outro) {
+        acoes.addAll(outro.acoes);
+        erros.addAll(outro.erros);
+    }
+
+    public List<String> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+
     public List<AcaoDeSincronizacao> getAcoes() {
         return Collections.unmodifiableList(acoes);
     }
 
+    public List<AcaoDeSincronizacao> getAcoes(AcaoDeSincronizacao.Tipo tipo) {
+        List<AcaoDeSincronizacao> doTipo = new ArrayList<>();
+        for (AcaoDeSincronizacao a : acoes) {
+            if (a.getTipo() == tipo) doTipo.add(a);
+        }
+        return doTipo;
+    }
+
+    public int contar(AcaoDeSincronizacao.Tipo tipo) {
+        int n = 0;
+        for (AcaoDeSincronizacao a : acoes) {
+            if (a.getTipo() == tipo) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Quantidade de ações por tipo (só os tipos presentes, na ordem do enum).
+     */
+    public Map<AcaoDeSincronizacao.Tipo, Integer> getResumo() {
+        Map<AcaoDeSincronizacao.Tipo, Integer> resumo = new EnumMap<>(AcaoDeSincronizacao.Tipo.class);
+        for (AcaoDeSincronizacao a : acoes) {
+            resumo.merge(a.getTipo(), 1, Integer::sum);
+        }
+        return resumo;
+    }
+
+    public long getBytesEstimados() {
+        long total = 0;
+        for (AcaoDeSincronizacao a : acoes) total += a.getBytesEstimados();
+        return total;
+    }
+
     public boolean estaVazio() {
         return acoes.isEmpty();
     }
+
+    /**
+     * Nada a alterar na origem (pode haver pendências sem imagem).
+     */
+    public boolean semAlteracoes() {
+        for (AcaoDeSincronizacao a : acoes) {
+            if (a.alteraCatalogo()) return false;
+        }
+        return true;
+    }
 }
@@ -2,14 +2,80 @@ package com.sincronizador.domain.model;
 
 import com.sincronizador.domain.valueobject.Tipo;
 
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class SKU {
 
+    /**
+     * Ordem estável para listas/tabelas (pela chave canônica, sem montar strings por comparação).
+     */
+    public static final Comparator<SKU> ORDEM =
+            Comparator.nullsFirst(Comparator.comparing(SKU::getChave));
+
+    // ✅ pool por grafia exata: a mesma grafia lida de novo (outra linha, outro refresh) reaproveita a instância.
+    // Grafias diferentes do mesmo produto são instâncias diferentes, mas iguais (equals/hashCode pela chave);
+    // assim cada fonte exibe a própria grafia, sem depender de qual thread leu primeiro.
+    // Limitado: passando de LIMITE_POOL, é esvaziado (a igualdade não depende da instância).
+    private static final int LIMITE_POOL = 1 << 17;
+    private static final ConcurrentHashMap<Grafia, SKU> POOL = new ConcurrentHashMap<>();
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
     private final Produto produto;
 
+    // identidade canônica "CLUBE|MODELO|TIPO" (sem acento, maiúscula, espaços normalizados)
+    private final String chave;
+    private final int hash;
+
     public SKU(Produto produto) {
-        this.produto = Objects.requireNonNull(produto, "produto não pode ser nulo");
+        this(produto, chaveCanonica(
+                Objects.requireNonNull(produto, "produto não pode ser nulo").getClube(),
+                produto.getModelo(),
+                produto.getTipo()));
+    }
+
+    private SKU(Produto produto, String chave) {
+        this.produto = produto;
+        this.chave = chave;
+        this.hash = chave.hashCode();
+    }
+
+    /**
+     * SKU internado pela grafia exata. Variações de espaço/caixa/acento do mesmo produto
+     * são iguais entre si (mesma chave canônica); cada uma exibe a própria grafia (sem espaços nas pontas).
+     */
+    public static SKU de(String clube, String modelo, Tipo tipo) {
+        Grafia grafia = new Grafia(clube, modelo, tipo);
+
+        SKU existente = POOL.get(grafia);
+        if (existente != null) return existente;
+
+        if (POOL.size() >= LIMITE_POOL) POOL.clear();
+
+        return POOL.computeIfAbsent(grafia, k -> new SKU(
+                new Produto(aparar(clube), aparar(modelo), tipo),
+                chaveCanonica(clube, modelo, tipo)));
+    }
+
+    /**
+     * Leva uma chave "CLUBE|MODELO|TIPO" montada com outra normalização (ex.: só trim + maiúscula,
+     * como nas associações de imagem antigas) para a forma canônica de getChave().
+     */
+    public static String canonizarChave(String chave) {
+        if (chave == null) return "";
+        String[] partes = chave.split("\\|", -1);
+        StringBuilder sb = new StringBuilder(chave.length());
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) sb.append('|');
+            sb.append(normalizar(partes[i]));
+        }
+        return sb.toString();
     }
 
     public Produto getProduto() {
@@ -28,6 +94,21 @@ public class SKU {
         return produto.getTipo();
     }
 
+    /**
+     * Chave canônica "CLUBE|MODELO|TIPO": base de equals/hashCode e da ordenação.
+     */
+    public String getChave() {
+        return chave;
+    }
+
+    /**
+     * Mesmo Clube + Modelo (canônicos), qualquer Tipo.
+     */
+    public boolean mesmoProduto(SKU outro) {
+        int fim = chave.lastIndexOf('|');
+        return fim == outro.chave.lastIndexOf('|') && chave.regionMatches(0, outro.chave, 0, fim);
+    }
+
     /**
      * Representação legível para UI/logs.
      * Ex: "VASCO AWAY 2025 (MASCULINO)".
@@ -51,17 +132,62 @@ public class SKU {
         if (this == o) return true;
         if (!(o instanceof SKU)) return false;
         SKU sku = (SKU) o;
-        return Objects.equals(produto.getClube(), sku.produto.getClube())
-                && Objects.equals(produto.getModelo(), sku.produto.getModelo())
-                && produto.getTipo() == sku.produto.getTipo();
+        return hash == sku.hash && chave.equals(sku.chave);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(
-                produto.getClube(),
-                produto.getModelo(),
-                produto.getTipo()
-        );
+        return hash;
+    }
+
+    // chave do pool: os três campos como vieram (concatenar com "|" confundiria grafias que têm "|")
+    private static final class Grafia {
+        private final String clube;
+        private final String modelo;
+        private final Tipo tipo;
+        private final int hash;
+
+        private Grafia(String clube, String modelo, Tipo tipo) {
+            this.clube = clube;
+            this.modelo = modelo;
+            this.tipo = tipo;
+            this.hash = Objects.hash(clube, modelo, tipo);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Grafia)) return false;
+            Grafia g = (Grafia) o;
+            return hash == g.hash && tipo == g.tipo
+                    && Objects.equals(clube, g.clube) && Objects.equals(modelo, g.modelo);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static String chaveCanonica(String clube, String modelo, Tipo tipo) {
+        return normalizar(clube) + "|" + normalizar(modelo) + "|" + (tipo == null ? "" : tipo.name());
+    }
+
+    private static String normalizar(String s) {
+        if (s == null) return "";
+        String t = ESPACOS.matcher(s.trim()).replaceAll(" ");
+
+        // só paga a decomposição Unicode quando há algo fora do ASCII
+        for (int i = 0; i < t.length(); i++) {
+            if (t.charAt(i) > 127) {
+                t = ACENTOS.matcher(Normalizer.normalize(t, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return t.toUpperCase(Locale.ROOT);
+    }
+
+    private static String aparar(String s) {
+        return (s == null) ? null : s.trim();
     }
 }
@@ -0,0 +1,38 @@
+package com.sincronizador.domain.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estado do arquivo remoto no momento da listagem do catálogo
+ * (nome, checksum do conteúdo e propriedades técnicas).
+ *
+ * Permite que o writer decida "no-op" sem reler o arquivo na origem.
+ */
+public class SnapshotRemoto {
+
+    private final String nome;
+    private final String md5Checksum;
+    private final Map<String, String> propriedades;
+
+    public SnapshotRemoto(String nome, String md5Checksum, Map<String, String> propriedades) {
+        this.nome = nome;
+        this.md5Checksum = md5Checksum;
+        this.propriedades = (propriedades == null)
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(propriedades));
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getMd5Checksum() {
+        return md5Checksum;
+    }
+
+    public Map<String, String> getPropriedades() {
+        return propriedades;
+    }
+}
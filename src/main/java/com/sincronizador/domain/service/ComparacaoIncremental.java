@@ -0,0 +1,85 @@
+package com.sincronizador.domain.service;
+
+import com.sincronizador.domain.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mesma junção de ComparadorDeCatalogo.comparar, só que alimentada enquanto ERP e catálogo
+ * ainda estão sendo lidos (cada lado na sua thread, página por página).
+ *
+ * Cada SKU é pareado assim que o segundo lado chega: quem chega por último já consulta o mapa do
+ * outro e compara os tamanhos. Ao fim das leituras só falta montar o plano (CRIAR e REMOVER são
+ * o que ficou sem par).
+ *
+ * Thread-safe: os dois lados podem alimentar ao mesmo tempo.
+ */
+public class ComparacaoIncremental {
+
+    private final Map<SKU, Disponibilidade> erp = new HashMap<>();
+    // duplicado no catálogo: vale o primeiro (como em ComparadorDeCatalogo)
+    private final Map<SKU, ItemDeCatalogo> catalogoPorSku = new HashMap<>();
+    private final List<ItemDeCatalogo> itensCatalogo = new ArrayList<>();
+
+    // SKUs disponíveis no ERP que já encontraram o item do catálogo
+    private final Map<SKU, AcaoDeSincronizacao> pareadas = new HashMap<>();
+
+    public synchronized void adicionarDoErp(Disponibilidade disponibilidade) {
+        SKU sku = disponibilidade.getSku();
+        erp.put(sku, disponibilidade);
+
+        if (!disponibilidade.estaDisponivel()) {
+            pareadas.remove(sku);
+            return;
+        }
+
+        ItemDeCatalogo item = catalogoPorSku.get(sku);
+        if (item != null) {
+            pareadas.put(sku, ComparadorDeCatalogo.acaoPara(disponibilidade, item));
+        }
+    }
+
+    public synchronized void adicionarDoCatalogo(ItemDeCatalogo item) {
+        itensCatalogo.add(item);
+
+        SKU sku = item.getSku();
+        if (catalogoPorSku.putIfAbsent(sku, item) != null) return;
+
+        Disponibilidade disponibilidade = erp.get(sku);
+        if (disponibilidade != null && disponibilidade.estaDisponivel()) {
+            pareadas.put(sku, ComparadorDeCatalogo.acaoPara(disponibilidade, item));
+        }
+    }
+
+    /**
+     * Chamar depois que as duas leituras terminaram.
+     * Ações do ERP na ordem de SKU.ORDEM e depois as remoções na ordem do catálogo.
+     */
+    public synchronized PlanoDeSincronizacao concluir() {
+        PlanoDeSincronizacao plano = new PlanoDeSincronizacao();
+
+        List<Disponibilidade> disponiveis = new ArrayList<>(erp.size());
+        for (Disponibilidade d : erp.values()) {
+            if (d.estaDisponivel()) disponiveis.add(d);
+        }
+        disponiveis.sort((a, b) -> SKU.ORDEM.compare(a.getSku(), b.getSku()));
+
+        // ERP → Catálogo (o que não pareou é CRIAR)
+        for (Disponibilidade disponibilidade : disponiveis) {
+            AcaoDeSincronizacao acao = pareadas.get(disponibilidade.getSku());
+            plano.adicionar(acao != null ? acao : ComparadorDeCatalogo.acaoPara(disponibilidade, null));
+        }
+
+        // Catálogo → ERP
+        for (ItemDeCatalogo item : itensCatalogo) {
+            if (!erp.containsKey(item.getSku())) {
+                plano.adicionar(AcaoDeSincronizacao.remover(item, "Produto não existe mais no ERP"));
+            }
+        }
+
+        return plano;
+    }
+}
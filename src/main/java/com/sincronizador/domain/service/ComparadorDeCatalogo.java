@@ -1,73 +1,91 @@
 package com.sincronizador.domain.service;
-import com.sincronizador.domain.service.ComparadorDeTamanhos;
+
 import com.sincronizador.domain.model.*;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
-@SuppressWarnings("unused")
 public class ComparadorDeCatalogo {
 
+    // sem estado: um único comparador serve para todas as comparações
+    private static final ComparadorDeTamanhos COMPARADOR_DE_TAMANHOS = new ComparadorDeTamanhos();
+
+    /**
+     * Junção por hash (IdentificadorDeCatalogo.representa = igualdade de SKU):
+     * cada lado é indexado uma vez, e cada item é resolvido com uma consulta ao mapa
+     * (O(n + m) em vez de uma busca linear no outro lado por item).
+     *
+     * Ações na ordem do ERP e depois na ordem do catálogo; com itens duplicados no catálogo, vale o primeiro.
+     * Cada SKU disponível no ERP recebe exatamente uma ação, com a disponibilidade e o item pareado:
+     * - CRIAR: ausente no catálogo (sem imagem: quem executa ainda escolhe o arquivo);
+     * - ATUALIZAR: tamanhos do catálogo diferentes (ou ausentes) dos do ERP;
+     * - NENHUMA: tamanhos iguais (imagem/metadata ficam a cargo de quem refina o plano).
+     * Itens do catálogo cujo SKU não está no ERP viram REMOVER.
+     */
     public static PlanoDeSincronizacao comparar(
             List<Disponibilidade> disponibilidadesERP,
             List<ItemDeCatalogo> itensCatalogo
     ) {
         PlanoDeSincronizacao plano = new PlanoDeSincronizacao();
-        IdentificadorDeCatalogo identificador = new IdentificadorDeCatalogo();
+
+        Map<SKU, ItemDeCatalogo> catalogoPorSku = new HashMap<>(capacidadePara(itensCatalogo.size()));
+        for (ItemDeCatalogo item : itensCatalogo) {
+            catalogoPorSku.putIfAbsent(item.getSku(), item);
+        }
+
+        Set<SKU> skusDoErp = new HashSet<>(capacidadePara(disponibilidadesERP.size()));
 
         // ERP → Catálogo
         for (Disponibilidade disponibilidade : disponibilidadesERP) {
             SKU sku = disponibilidade.getSku();
+            skusDoErp.add(sku);
 
-            ItemDeCatalogo itemCorrespondente = itensCatalogo.stream()
-                    .filter(item -> identificador.representa(item, sku))
-                    .findFirst()
-                    .orElse(null);
-
-            if (disponibilidade.estaDisponivel()) {
-                if (itemCorrespondente == null) {
-                    plano.adicionar(new AcaoDeSincronizacao(
-                            AcaoDeSincronizacao.Tipo.CRIAR,
-                            sku,
-                            "Produto disponível no ERP e ausente no catálogo"
-                    ));
-                } else {
-                   ComparadorDeTamanhos comparadorDeTamanhos = new ComparadorDeTamanhos();
-
-ResultadoComparacaoTamanhos resultado =
-        comparadorDeTamanhos.comparar(disponibilidade, itemCorrespondente);
-
-if (resultado == ResultadoComparacaoTamanhos.DIFERENTES) {
-    plano.adicionar(new AcaoDeSincronizacao(
-            AcaoDeSincronizacao.Tipo.ATUALIZAR,
-            sku,
-            "Tamanhos divergentes entre ERP e catálogo"
-    ));
-}
+            if (!disponibilidade.estaDisponivel()) continue;
 
-                }
-            }
+            plano.adicionar(acaoPara(disponibilidade, catalogoPorSku.get(sku)));
         }
 
         // Catálogo → ERP
         for (ItemDeCatalogo item : itensCatalogo) {
-
-            boolean existeNoERP = disponibilidadesERP.stream()
-                    .anyMatch(d ->
-                            identificador.representa(item, d.getSku())
-                    );
-
-            if (!existeNoERP) {
-                plano.adicionar(new AcaoDeSincronizacao(
-                        AcaoDeSincronizacao.Tipo.REMOVER,
-                        item.getSku(),
-                        "Produto não existe mais no ERP"
-                ));
+            if (!skusDoErp.contains(item.getSku())) {
+                plano.adicionar(AcaoDeSincronizacao.remover(item, "Produto não existe mais no ERP"));
             }
         }
 
         return plano;
     }
-}
 
+    /**
+     * Ação de um SKU disponível no ERP, dado o item pareado do catálogo (null = ausente).
+     */
+    static AcaoDeSincronizacao acaoPara(Disponibilidade disponibilidade, ItemDeCatalogo itemCorrespondente) {
+        if (itemCorrespondente == null) {
+            return AcaoDeSincronizacao.ausenteNoCatalogo(
+                    disponibilidade,
+                    "Produto disponível no ERP e ausente no catálogo"
+            );
+        }
+
+        DiferencaDeTamanhos diferenca =
+                COMPARADOR_DE_TAMANHOS.compararDetalhado(disponibilidade, itemCorrespondente);
+
+        if (diferenca.getResultado() == ResultadoComparacaoTamanhos.IGUAIS) {
+            return AcaoDeSincronizacao.nenhuma(itemCorrespondente, disponibilidade);
+        }
+
+        String resumo = diferenca.resumir();
+        return AcaoDeSincronizacao.atualizar(
+                itemCorrespondente,
+                disponibilidade,
+                "Tamanhos divergentes entre ERP e catálogo" + (resumo.isEmpty() ? "" : " (" + resumo + ")")
+        );
+    }
+
+    // dimensiona o mapa para não redimensionar durante a carga (fator de carga padrão 0,75)
+    private static int capacidadePara(int elementos) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(elementos / 0.75));
+    }
+}
@@ -1,12 +1,9 @@
 package com.sincronizador.domain.service;
 
+import com.sincronizador.domain.model.DiferencaDeTamanhos;
 import com.sincronizador.domain.model.Disponibilidade;
 import com.sincronizador.domain.model.ItemDeCatalogo;
 import com.sincronizador.domain.model.ResultadoComparacaoTamanhos;
-import com.sincronizador.domain.valueobject.Tamanho;
-
-import java.util.Collections;
-import java.util.Set;
 
 public class ComparadorDeTamanhos {
 
@@ -14,24 +11,44 @@ public class ComparadorDeTamanhos {
             Disponibilidade disponibilidadeERP,
             ItemDeCatalogo itemCatalogo
     ) {
+        // ✅ máscaras de bits: igualdade de conjuntos = igualdade de int
+        int tamanhosERP = mascaraDoErp(disponibilidadeERP);
+        int tamanhosCatalogo = mascaraDoCatalogo(itemCatalogo);
 
-        Set<Tamanho> tamanhosERP = (disponibilidadeERP == null || disponibilidadeERP.getTamanhosDisponiveis() == null)
-                ? Collections.emptySet()
-                : disponibilidadeERP.getTamanhosDisponiveis();
-
-        Set<Tamanho> tamanhosCatalogo =
-                (itemCatalogo == null || itemCatalogo.getDisponibilidade() == null || itemCatalogo.getDisponibilidade().getTamanhosDisponiveis() == null)
-                        ? Collections.emptySet()
-                        : itemCatalogo.getDisponibilidade().getTamanhosDisponiveis();
-
-        if (tamanhosCatalogo.isEmpty()) {
+        if (tamanhosCatalogo == 0) {
             return ResultadoComparacaoTamanhos.CATALOGO_SEM_TAMANHOS;
         }
 
-        if (tamanhosERP.equals(tamanhosCatalogo)) {
+        if (tamanhosERP == tamanhosCatalogo) {
             return ResultadoComparacaoTamanhos.IGUAIS;
         }
 
         return ResultadoComparacaoTamanhos.DIFERENTES;
     }
+
+    /**
+     * Mesma comparação, trazendo também os tamanhos que entraram/saíram (em máscara).
+     */
+    public DiferencaDeTamanhos compararDetalhado(
+            Disponibilidade disponibilidadeERP,
+            ItemDeCatalogo itemCatalogo
+    ) {
+        int tamanhosERP = mascaraDoErp(disponibilidadeERP);
+        int tamanhosCatalogo = mascaraDoCatalogo(itemCatalogo);
+
+        return new DiferencaDeTamanhos(
+                comparar(disponibilidadeERP, itemCatalogo),
+                tamanhosERP & ~tamanhosCatalogo,
+                tamanhosCatalogo & ~tamanhosERP);
+    }
+
+    private static int mascaraDoErp(Disponibilidade disponibilidadeERP) {
+        return (disponibilidadeERP == null) ? 0 : disponibilidadeERP.getMascara();
+    }
+
+    private static int mascaraDoCatalogo(ItemDeCatalogo itemCatalogo) {
+        return (itemCatalogo == null || itemCatalogo.getDisponibilidade() == null)
+                ? 0
+                : itemCatalogo.getDisponibilidade().getMascara();
+    }
 }
@@ -7,6 +7,7 @@ import com.sincronizador.domain.valueobject.Tipo;
 
 import java.text.Normalizer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class GeradorDeLegenda {
@@ -24,43 +25,87 @@ public class GeradorDeLegenda {
         TAMANHO_PARA_IDADES.put(28, new int[]{12, 13});
     }
 
+    // ✅ o sufixo só depende de (adulto/infantil, tamanhos): tabela pré-calculada pelas 2^7 máscaras de cada família
+    private static final int TAMANHOS_POR_FAMILIA = 7;
+    private static final int DESLOCAMENTO_INFANTIL = Integer.numberOfTrailingZeros(Tamanho.MASCARA_INFANTIL);
+    private static final String[] SUFIXO_ADULTO = new String[1 << TAMANHOS_POR_FAMILIA];
+    private static final String[] SUFIXO_INFANTIL = new String[1 << TAMANHOS_POR_FAMILIA];
+    static {
+        for (int i = 0; i < SUFIXO_ADULTO.length; i++) {
+            SUFIXO_ADULTO[i] = gerarSufixo(Tipo.MASCULINO, Tamanho.deMascara(i));
+            SUFIXO_INFANTIL[i] = gerarSufixo(Tipo.INFANTIL, Tamanho.deMascara(i << DESLOCAMENTO_INFANTIL));
+        }
+    }
+
+    // prefixo de 3 letras por clube (sem acento, maiúsculo); limitado para não crescer sem fim
+    private static final int LIMITE_PREFIXOS = 4096;
+    private static final Map<String, String> PREFIXOS = new ConcurrentHashMap<>();
+
     public static String gerarLegenda(Disponibilidade disponibilidade) {
         SKU sku = disponibilidade.getSku();
+        return prefixoDoClube(sku.getClube()) + sufixo(sku.getTipo(), disponibilidade);
+    }
+
+    private static String sufixo(Tipo tipo, Disponibilidade disponibilidade) {
+        int mascara = disponibilidade.getMascara();
+
+        if (tipo == Tipo.INFANTIL) {
+            if ((mascara & ~Tamanho.MASCARA_INFANTIL) == 0) {
+                return SUFIXO_INFANTIL[mascara >>> DESLOCAMENTO_INFANTIL];
+            }
+        } else if ((mascara & ~Tamanho.MASCARA_ADULTO) == 0) {
+            return SUFIXO_ADULTO[mascara];
+        }
+
+        // tamanhos fora da família do tipo (Disponibilidade já filtra, mas fica blindado)
+        return gerarSufixo(tipo, disponibilidade.getTamanhosDisponiveis());
+    }
 
-        String clubeNorm = normalizar(sku.getClube()).toUpperCase(Locale.ROOT);
-        String clube3 = clubeNorm.length() <= 3 ? clubeNorm : clubeNorm.substring(0, 3);
+    private static String prefixoDoClube(String clube) {
+        if (clube == null) return "";
+
+        String prefixo = PREFIXOS.get(clube);
+        if (prefixo != null) return prefixo;
+
+        String clubeNorm = normalizar(clube).toUpperCase(Locale.ROOT);
+        prefixo = clubeNorm.length() <= 3 ? clubeNorm : clubeNorm.substring(0, 3);
+
+        if (PREFIXOS.size() < LIMITE_PREFIXOS) PREFIXOS.put(clube, prefixo);
+        return prefixo;
+    }
 
+    private static String gerarSufixo(Tipo tipo, Set<Tamanho> tamanhosDisponiveis) {
         // ✅ INFANTIL: converte tamanhos numéricos -> idades (ex: 24 -> "8, 9")
-        if (sku.getTipo() == Tipo.INFANTIL) {
-            String idades = gerarListaIdadesInfantil(disponibilidade);
+        if (tipo == Tipo.INFANTIL) {
+            String idades = gerarListaIdadesInfantil(tamanhosDisponiveis);
 
             // fallback: se não conseguiu converter, mostra os tamanhos mesmo (ordenados)
             if (idades.isBlank()) {
-                String tamanhosFallback = disponibilidade.getTamanhosDisponiveis().stream()
+                String tamanhosFallback = tamanhosDisponiveis.stream()
                         .sorted(Comparator.comparingInt(GeradorDeLegenda::ordemTamanhoAdultoOuNumerico))
                         .map(Tamanho::getValorExibicao)
                         .collect(Collectors.joining(", "));
-                return clube3 + " INFANTIL - " + tamanhosFallback;
+                return " INFANTIL - " + tamanhosFallback;
             }
 
-            return clube3 + " INFANTIL - " + idades;
+            return " INFANTIL - " + idades;
         }
 
         // ✅ Adulto (mantém padrão atual): tamanhos ordenados P, M, G, GG, 2GG, 3GG, 4GG
-        String tamanhos = disponibilidade.getTamanhosDisponiveis()
+        String tamanhos = tamanhosDisponiveis
                 .stream()
                 .sorted(Comparator.comparingInt(GeradorDeLegenda::ordemTamanhoAdultoOuNumerico))
                 .map(Tamanho::getValorExibicao)
                 .collect(Collectors.joining(", "));
 
-        return clube3 + " - " + tamanhos;
+        return " - " + tamanhos;
     }
 
-    private static String gerarListaIdadesInfantil(Disponibilidade disponibilidade) {
+    private static String gerarListaIdadesInfantil(Set<Tamanho> tamanhosDisponiveis) {
         // Usa TreeSet para ordenar e remover duplicados automaticamente
         Set<Integer> idades = new TreeSet<>();
 
-        for (Tamanho t : disponibilidade.getTamanhosDisponiveis()) {
+        for (Tamanho t : tamanhosDisponiveis) {
             String v = t.getValorExibicao();
             Integer tamanhoNum = tentarParseInt(v);
             if (tamanhoNum == null) continue;
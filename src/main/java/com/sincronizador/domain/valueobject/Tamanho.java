@@ -1,5 +1,9 @@
 package com.sincronizador.domain.valueobject;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Tamanho {
 
     // Adulto
@@ -20,7 +24,44 @@ public enum Tamanho {
     _26,
     _28;
 
-    
+    // ✅ 14 tamanhos cabem num int: conjunto de tamanhos = máscara de bits (bit = 1 << ordinal)
+    private static final Tamanho[] VALORES = values();
+
+    public static final int MASCARA_ADULTO =
+            mascaraDe(EnumSet.of(P, M, G, GG, _2GG, _3GG, _4GG));
+
+    public static final int MASCARA_INFANTIL =
+            mascaraDe(EnumSet.of(_16, _18, _20, _22, _24, _26, _28));
+
+    public int getBit() {
+        return 1 << ordinal();
+    }
+
+    public boolean pertenceA(int mascara) {
+        return (mascara & getBit()) != 0;
+    }
+
+    public static int mascaraDe(Collection<Tamanho> tamanhos) {
+        int mascara = 0;
+        if (tamanhos == null) return mascara;
+        for (Tamanho t : tamanhos) {
+            if (t != null) mascara |= t.getBit();
+        }
+        return mascara;
+    }
+
+    /**
+     * Tamanhos da máscara, na ordem do enum.
+     */
+    public static Set<Tamanho> deMascara(int mascara) {
+        EnumSet<Tamanho> tamanhos = EnumSet.noneOf(Tamanho.class);
+        for (int resto = mascara; resto != 0; resto &= resto - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(resto);
+            if (ordinal < VALORES.length) tamanhos.add(VALORES[ordinal]);
+        }
+        return tamanhos;
+    }
+
     public String getValorExibicao() {
         if (name().startsWith("_")) {
             return name().substring(1);
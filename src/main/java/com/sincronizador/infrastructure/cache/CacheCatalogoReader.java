@@ -0,0 +1,51 @@
+package com.sincronizador.infrastructure.cache;
+
+import com.sincronizador.application.port.CatalogoReader;
+import com.sincronizador.domain.model.ItemDeCatalogo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * CatalogoReader com snapshot compartilhado da listagem do Drive.
+ * Deve ser invalidado depois de qualquer escrita no catálogo (ver InvalidaCacheCatalogoWriter).
+ */
+public class CacheCatalogoReader implements CatalogoReader {
+
+    private final CatalogoReader delegado;
+    private final SnapshotCache<List<ItemDeCatalogo>> cache;
+
+    public CacheCatalogoReader(CatalogoReader delegado, long ttlMs) {
+        this.delegado = Objects.requireNonNull(delegado, "delegado não pode ser nulo");
+        this.cache = new SnapshotCache<>(ttlMs);
+    }
+
+    @Override
+    public List<ItemDeCatalogo> obterItens() {
+        return cache.obter(() -> Collections.unmodifiableList(new ArrayList<>(delegado.obterItens())));
+    }
+
+    @Override
+    public void percorrerItens(Consumer<ItemDeCatalogo> consumidor) {
+        boolean[] entregue = {false};
+
+        List<ItemDeCatalogo> snapshot = cache.obter(() -> {
+            List<ItemDeCatalogo> lidos = new ArrayList<>();
+            delegado.percorrerItens(item -> {
+                lidos.add(item);
+                consumidor.accept(item);
+            });
+            entregue[0] = true;
+            return Collections.unmodifiableList(lidos);
+        });
+
+        if (!entregue[0]) snapshot.forEach(consumidor);
+    }
+
+    public void invalidar() {
+        cache.invalidar();
+    }
+}
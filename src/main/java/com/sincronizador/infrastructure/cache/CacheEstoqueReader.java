@@ -0,0 +1,56 @@
+package com.sincronizador.infrastructure.cache;
+
+import com.sincronizador.application.port.EstoqueReader;
+import com.sincronizador.domain.model.Disponibilidade;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * EstoqueReader com snapshot compartilhado: status da tabela e sincronização
+ * usam a mesma leitura do ERP enquanto ela estiver dentro do TTL.
+ */
+public class CacheEstoqueReader implements EstoqueReader {
+
+    private final EstoqueReader delegado;
+    private final SnapshotCache<List<Disponibilidade>> cache;
+
+    public CacheEstoqueReader(EstoqueReader delegado, long ttlMs) {
+        this.delegado = Objects.requireNonNull(delegado, "delegado não pode ser nulo");
+        this.cache = new SnapshotCache<>(ttlMs);
+    }
+
+    @Override
+    public List<Disponibilidade> obterDisponibilidades() {
+        return cache.obter(() -> Collections.unmodifiableList(new ArrayList<>(delegado.obterDisponibilidades())));
+    }
+
+    /**
+     * Cache vencido: repassa o streaming do delegado e guarda o que passou.
+     * Cache válido: percorre o snapshot.
+     * Quem chega durante a leitura de outra thread espera ela terminar e percorre o snapshot.
+     */
+    @Override
+    public void percorrerDisponibilidades(Consumer<Disponibilidade> consumidor) {
+        boolean[] entregue = {false};
+
+        List<Disponibilidade> snapshot = cache.obter(() -> {
+            List<Disponibilidade> lidos = new ArrayList<>();
+            delegado.percorrerDisponibilidades(d -> {
+                lidos.add(d);
+                consumidor.accept(d);
+            });
+            entregue[0] = true;
+            return Collections.unmodifiableList(lidos);
+        });
+
+        if (!entregue[0]) snapshot.forEach(consumidor);
+    }
+
+    public void invalidar() {
+        cache.invalidar();
+    }
+}
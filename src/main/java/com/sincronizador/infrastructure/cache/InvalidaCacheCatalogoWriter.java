@@ -0,0 +1,136 @@
+package com.sincronizador.infrastructure.cache;
+
+import com.sincronizador.application.port.CatalogoWriter;
+import com.sincronizador.domain.model.Disponibilidade;
+import com.sincronizador.domain.model.ItemDeCatalogo;
+import com.sincronizador.domain.model.SKU;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decorator do CatalogoWriter: toda escrita efetiva no Drive invalida o snapshot
+ * do catálogo, para que a próxima leitura (ex.: recarga da tabela pós-sync) venha fresca.
+ */
+public class InvalidaCacheCatalogoWriter implements CatalogoWriter {
+
+    private final CatalogoWriter delegado;
+    private final CacheCatalogoReader cache;
+
+    public InvalidaCacheCatalogoWriter(CatalogoWriter delegado, CacheCatalogoReader cache) {
+        this.delegado = Objects.requireNonNull(delegado, "delegado não pode ser nulo");
+        this.cache = Objects.requireNonNull(cache, "cache não pode ser nulo");
+    }
+
+    @Override
+    public String criarComImagemLocal(SKU sku, Disponibilidade disponibilidade, File imagemLocal) {
+        try {
+            return delegado.criarComImagemLocal(sku, disponibilidade, imagemLocal);
+        } finally {
+            cache.invalidar();
+        }
+    }
+
+    @Override
+    public void atualizarLegenda(String fileId, String novoNome) {
+        try {
+            delegado.atualizarLegenda(fileId, novoNome);
+        } finally {
+            cache.invalidar();
+        }
+    }
+
+    @Override
+    public void trocarImagem(String fileId, File novaImagemLocal) {
+        try {
+            delegado.trocarImagem(fileId, novaImagemLocal);
+        } finally {
+            cache.invalidar();
+        }
+    }
+
+    @Override
+    public void vincularSku(String fileId, SKU sku) {
+        try {
+            delegado.vincularSku(fileId, sku);
+        } finally {
+            cache.invalidar();
+        }
+    }
+
+    @Override
+    public void remover(String fileId) {
+        try {
+            delegado.remover(fileId);
+        } finally {
+            cache.invalidar();
+        }
+    }
+
+    @Override
+    public boolean atualizarTamanhosFabrica(String fileId, Disponibilidade disponibilidade) {
+        return invalidarSeAlterou(delegado.atualizarTamanhosFabrica(fileId, disponibilidade));
+    }
+
+    @Override
+    public boolean atualizarLegenda(ItemDeCatalogo item, String novoNome) {
+        return invalidarSeAlterou(delegado.atualizarLegenda(item, novoNome));
+    }
+
+    @Override
+    public boolean trocarImagem(ItemDeCatalogo item, File novaImagemLocal) {
+        return invalidarSeAlterou(delegado.trocarImagem(item, novaImagemLocal));
+    }
+
+    @Override
+    public boolean atualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        return invalidarSeAlterou(delegado.atualizarTamanhosFabrica(item, disponibilidade));
+    }
+
+    @Override
+    public boolean precisaRenomear(ItemDeCatalogo item, String novoNome) {
+        return delegado.precisaRenomear(item, novoNome);
+    }
+
+    @Override
+    public boolean precisaAtualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        return delegado.precisaAtualizarTamanhosFabrica(item, disponibilidade);
+    }
+
+    @Override
+    public boolean precisaTrocarImagem(ItemDeCatalogo item, File imagemLocal) {
+        return delegado.precisaTrocarImagem(item, imagemLocal);
+    }
+
+    @Override
+    public long bytesDeEnvio(File imagemLocal) {
+        return delegado.bytesDeEnvio(imagemLocal);
+    }
+
+    @Override
+    public void prepararImagens(Collection<File> imagensLocais) {
+        delegado.prepararImagens(imagensLocais);
+    }
+
+    @Override
+    public void iniciarLote() {
+        delegado.iniciarLote();
+    }
+
+    @Override
+    public Map<String, String> concluirLote() {
+        try {
+            return delegado.concluirLote();
+        } finally {
+            // mutações do lote só chegam ao Drive aqui
+            cache.invalidar();
+        }
+    }
+
+    private boolean invalidarSeAlterou(boolean alterou) {
+        if (alterou) cache.invalidar();
+        return alterou;
+    }
+}
@@ -0,0 +1,122 @@
+package com.sincronizador.infrastructure.cache;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Guarda a última leitura completa de uma fonte (ERP, Drive) por um tempo (TTL).
+ *
+ * - single-flight: se duas threads pedem ao mesmo tempo com o cache vencido,
+ *   só uma lê a fonte; a outra espera e recebe o mesmo snapshot;
+ * - a leitura roda FORA do monitor: invalidar() nunca espera I/O;
+ * - invalidar() descarta o snapshot na hora (ex.: depois de escrever no Drive);
+ *   uma carga que começou antes da invalidação ainda é entregue a quem a pediu, mas não é guardada;
+ * - se a leitura falhar, nada é guardado e a exceção sobe para quem pediu (e para quem esperava por ela).
+ */
+public class SnapshotCache<T> {
+
+    private final long ttlMs;
+
+    // carga atual (em andamento ou concluída); null = nada guardado
+    private Carga<T> atual;
+    // muda a cada invalidar(): uma carga que começou antes da invalidação não é guardada
+    private long geracao;
+
+    /**
+     * @param ttlMs validade do snapshot; 0 = sem cache (toda chamada lê a fonte)
+     */
+    public SnapshotCache(long ttlMs) {
+        this.ttlMs = Math.max(0, ttlMs);
+    }
+
+    public T obter(Supplier<T> carregador) {
+        Objects.requireNonNull(carregador, "carregador não pode ser nulo");
+
+        if (ttlMs == 0) return carregador.get();
+
+        while (true) {
+            Carga<T> carga;
+            boolean dono = false;
+
+            synchronized (this) {
+                if (atual != null && !vencida(atual)) {
+                    carga = atual;
+                } else {
+                    carga = new Carga<>(geracao);
+                    atual = carga;
+                    dono = true;
+                }
+            }
+
+            if (dono) return carregar(carga, carregador);
+
+            try {
+                return aguardar(carga);
+            } catch (CancellationException e) {
+                // a leitura de OUTRA thread foi cancelada (ex.: tela fechada): esta tenta de novo
+                if (Thread.currentThread().isInterrupted()) throw e;
+            }
+        }
+    }
+
+    public synchronized void invalidar() {
+        atual = null;
+        geracao++;
+    }
+
+    private T carregar(Carga<T> carga, Supplier<T> carregador) {
+        T novo;
+        try {
+            novo = carregador.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                if (atual == carga) atual = null;
+            }
+            carga.futuro.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            if (carga.geracao == geracao) {
+                carga.concluidaEm = System.currentTimeMillis();
+            }
+        }
+        carga.futuro.complete(novo);
+        return novo;
+    }
+
+    private static <T> T aguardar(Carga<T> carga) {
+        try {
+            return carga.futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Espera pelo snapshot interrompida");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new RuntimeException(causa);
+        }
+    }
+
+    // chamado com o monitor: em andamento = compartilhada; concluída = vale até o TTL
+    private boolean vencida(Carga<T> carga) {
+        if (!carga.futuro.isDone()) return false;
+        if (carga.concluidaEm == 0) return true;
+        return System.currentTimeMillis() - carga.concluidaEm >= ttlMs;
+    }
+
+    private static final class Carga<T> {
+        private final long geracao;
+        private final CompletableFuture<T> futuro = new CompletableFuture<>();
+        // 0 = não guardada (invalidada durante a leitura); protegido pelo monitor do cache
+        private long concluidaEm;
+
+        private Carga(long geracao) {
+            this.geracao = geracao;
+        }
+    }
+}
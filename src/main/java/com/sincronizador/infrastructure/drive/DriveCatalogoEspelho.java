@@ -0,0 +1,124 @@
+package com.sincronizador.infrastructure.drive;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Key;
+import com.google.api.services.drive.model.File;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Espelho local da pasta do catálogo no Drive + page token da Changes API.
+ *
+ * Guarda só o que o Reader usa (id, name, md5Checksum, appProperties) e é
+ * persistido em JSON para que uma sync "quente" busque apenas o delta.
+ */
+final class DriveCatalogoEspelho {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final String folderId;
+    private String pageToken;
+    private final Map<String, File> arquivos;
+
+    DriveCatalogoEspelho(String folderId, String pageToken, Collection<File> arquivos) {
+        this.folderId = folderId;
+        this.pageToken = pageToken;
+        this.arquivos = new LinkedHashMap<>();
+        for (File f : arquivos) {
+            if (f != null && f.getId() != null) this.arquivos.put(f.getId(), enxugar(f));
+        }
+    }
+
+    String getFolderId() {
+        return folderId;
+    }
+
+    String getPageToken() {
+        return pageToken;
+    }
+
+    void setPageToken(String pageToken) {
+        this.pageToken = pageToken;
+    }
+
+    Collection<File> getArquivos() {
+        return Collections.unmodifiableCollection(arquivos.values());
+    }
+
+    void aplicar(File arquivo) {
+        arquivos.put(arquivo.getId(), enxugar(arquivo));
+    }
+
+    void remover(String fileId) {
+        arquivos.remove(fileId);
+    }
+
+    /**
+     * Lê o espelho do disco; retorna null se não existir ou estiver ilegível
+     * (nesse caso o Reader simplesmente faz a listagem completa).
+     */
+    static DriveCatalogoEspelho carregar(Path arquivo) {
+        if (arquivo == null || !Files.isRegularFile(arquivo)) return null;
+
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            Dados dados = JSON_FACTORY.fromInputStream(in, StandardCharsets.UTF_8, Dados.class);
+            if (dados == null || dados.folderId == null || dados.pageToken == null) return null;
+
+            List<File> lista = (dados.arquivos == null) ? List.of() : dados.arquivos;
+            return new DriveCatalogoEspelho(dados.folderId, dados.pageToken, lista);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    void salvar(Path arquivo) {
+        Dados dados = new Dados();
+        dados.folderId = folderId;
+        dados.pageToken = pageToken;
+        dados.arquivos = new ArrayList<>(arquivos.values());
+
+        try {
+            Files.createDirectories(arquivo.toAbsolutePath().getParent());
+
+            // grava em arquivo temporário e troca no fim: nunca deixa um espelho pela metade
+            Path tmp = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                out.write(JSON_FACTORY.toString(dados).getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(tmp, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao salvar espelho do catálogo do Drive: " + arquivo, e);
+        }
+    }
+
+    private static File enxugar(File f) {
+        File copia = new File();
+        copia.setId(f.getId());
+        copia.setName(f.getName());
+        copia.setMd5Checksum(f.getMd5Checksum());
+        copia.setAppProperties(f.getAppProperties());
+        return copia;
+    }
+
+    /**
+     * Formato persistido.
+     */
+    public static final class Dados extends GenericJson {
+        @Key
+        public String folderId;
+
+        @Key
+        public String pageToken;
+
+        @Key
+        public List<File> arquivos;
+    }
+}
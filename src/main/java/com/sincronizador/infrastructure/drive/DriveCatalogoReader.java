@@ -1,6 +1,9 @@
 package com.sincronizador.infrastructure.drive;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.Change;
+import com.google.api.services.drive.model.ChangeList;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 import com.sincronizador.application.port.CatalogoReader;
@@ -8,65 +11,232 @@ import com.sincronizador.domain.model.*;
 import com.sincronizador.domain.valueobject.Tamanho;
 import com.sincronizador.domain.valueobject.Tipo;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class DriveCatalogoReader implements CatalogoReader {
 
+    // máximo aceito pela API do Drive em files.list
+    private static final int TAMANHO_PAGINA = 1000;
+
+    private static final String CAMPOS_MUDANCAS =
+            "nextPageToken,newStartPageToken,"
+                    + "changes(fileId,removed,file(id,name,parents,trashed,appProperties,md5Checksum))";
+
     private final Drive drive;
     private final String folderId;
 
+    // modo incremental (Changes API): null = sempre lista a pasta inteira
+    private final Path arquivoEspelho;
+    private DriveCatalogoEspelho espelho;
+
     public DriveCatalogoReader(Drive drive, String folderId) {
+        this(drive, folderId, null);
+    }
+
+    /**
+     * Modo incremental: mantém um espelho local da pasta em arquivoEspelho e,
+     * a cada leitura, aplica só o delta de changes.list desde o último page token.
+     */
+    public DriveCatalogoReader(Drive drive, String folderId, Path arquivoEspelho) {
         this.drive = drive;
         this.folderId = folderId;
+        this.arquivoEspelho = arquivoEspelho;
     }
 
     @Override
     public List<ItemDeCatalogo> obterItens() {
-
         List<ItemDeCatalogo> itens = new ArrayList<>();
+        percorrerItens(itens::add);
+        return itens;
+    }
 
-        try {
-            FileList result = drive.files().list()
-                    .setQ("'" + folderId + "' in parents and trashed = false")
-                    .setFields("files(id,name,appProperties,md5Checksum)")
-                    .execute();
+    @Override
+    public void percorrerItens(Consumer<ItemDeCatalogo> consumidor) {
+        Objects.requireNonNull(consumidor, "consumidor não pode ser nulo");
 
-            for (File file : result.getFiles()) {
+        if (arquivoEspelho == null) {
+            percorrerPasta(file -> converter(file).ifPresent(consumidor));
+            return;
+        }
 
-                Optional<SKU> skuOpt = skuViaMetadata(file);
-                if (skuOpt.isEmpty()) {
-                    // sem metadata = não entra no catálogo (segurança pra não deletar por engano)
-                    continue;
+        for (File file : atualizarEspelho()) {
+            converter(file).ifPresent(consumidor);
+        }
+    }
+
+    /**
+     * Lista a pasta do catálogo seguindo nextPageToken até o fim.
+     * Enquanto uma página é processada, a próxima já está sendo buscada.
+     */
+    private void percorrerPasta(Consumer<File> consumidor) {
+        ExecutorService prefetch = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "drive-catalogo-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            FileList pagina = listarPagina(null);
+
+            while (pagina != null) {
+                // ✅ dispara a próxima página antes de processar a atual
+                String proximoToken = pagina.getNextPageToken();
+                Future<FileList> proxima = (proximoToken == null || proximoToken.isBlank())
+                        ? null
+                        : prefetch.submit(() -> listarPagina(proximoToken));
+
+                List<File> arquivos = pagina.getFiles();
+                if (arquivos != null) {
+                    for (File file : arquivos) {
+                        consumidor.accept(file);
+                    }
                 }
 
-                SKU sku = skuOpt.get();
+                pagina = (proxima == null) ? null : proxima.get();
+            }
 
-                // ✅ NOVA REGRA:
-                // INFANTIL: a verdade técnica (tamanhos de fábrica) vem da metadata.
-                // ADULTO: pode vir da metadata (novo padrão) ou fallback via nome (legenda).
-                Set<Tamanho> tamanhos = extrairTamanhosDoArquivo(file, sku);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Leitura do catálogo do Drive interrompida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() == null ? e : e.getCause();
+            throw new RuntimeException("Erro ao ler catálogo do Drive: " + causa.getMessage(), causa);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler catálogo do Drive: " + e.getMessage(), e);
+        } finally {
+            prefetch.shutdownNow();
+        }
+    }
 
-                Map<Tamanho, Integer> quantidades = new EnumMap<>(Tamanho.class);
-                for (Tamanho t : tamanhos) {
-                    quantidades.put(t, 1);
+    /**
+     * Traz o espelho local para o estado atual do Drive e devolve uma cópia dos arquivos.
+     * - sem espelho (ou de outra pasta): listagem completa + novo start page token;
+     * - com espelho: aplica changes.list a partir do token salvo;
+     * - token expirado/inválido (404/410): volta para a listagem completa.
+     */
+    private synchronized List<File> atualizarEspelho() {
+        if (espelho == null) {
+            espelho = DriveCatalogoEspelho.carregar(arquivoEspelho);
+        }
+
+        try {
+            if (espelho == null || !folderId.equals(espelho.getFolderId())) {
+                espelho = relistarCompleto();
+            } else {
+                try {
+                    aplicarMudancas(espelho);
+                } catch (GoogleJsonResponseException e) {
+                    if (e.getStatusCode() != 404 && e.getStatusCode() != 410) throw e;
+                    espelho = relistarCompleto();
                 }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler alterações do catálogo no Drive: " + e.getMessage(), e);
+        }
+
+        espelho.salvar(arquivoEspelho);
+        return new ArrayList<>(espelho.getArquivos());
+    }
+
+    private DriveCatalogoEspelho relistarCompleto() throws IOException {
+        // token pego ANTES da listagem: o que mudar durante ela aparece no próximo delta
+        String token = drive.changes().getStartPageToken().execute().getStartPageToken();
+
+        List<File> arquivos = new ArrayList<>();
+        percorrerPasta(arquivos::add);
+
+        return new DriveCatalogoEspelho(folderId, token, arquivos);
+    }
 
-                Estoque estoque = new Estoque(sku, quantidades);
-                Disponibilidade disponibilidade = Disponibilidade.aPartirDoEstoque(estoque);
+    private void aplicarMudancas(DriveCatalogoEspelho alvo) throws IOException {
+        String token = alvo.getPageToken();
 
-                itens.add(new ItemDeCatalogo(
-                        sku,
-                        disponibilidade,
-                        file.getId()
-                ));
+        while (token != null) {
+            ChangeList pagina = drive.changes().list(token)
+                    .setPageSize(TAMANHO_PAGINA)
+                    .setSpaces("drive")
+                    .setFields(CAMPOS_MUDANCAS)
+                    .execute();
+
+            if (pagina.getChanges() != null) {
+                for (Change mudanca : pagina.getChanges()) {
+                    aplicarMudanca(alvo, mudanca);
+                }
             }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao ler catálogo do Drive: " + e.getMessage(), e);
+            if (pagina.getNewStartPageToken() != null) {
+                alvo.setPageToken(pagina.getNewStartPageToken());
+                return;
+            }
+
+            token = pagina.getNextPageToken();
         }
+    }
 
-        return itens;
+    private void aplicarMudanca(DriveCatalogoEspelho alvo, Change mudanca) {
+        File file = mudanca.getFile();
+        String fileId = (file != null && file.getId() != null) ? file.getId() : mudanca.getFileId();
+        if (fileId == null) return;
+
+        boolean saiuDaPasta = Boolean.TRUE.equals(mudanca.getRemoved())
+                || file == null
+                || Boolean.TRUE.equals(file.getTrashed())
+                || file.getParents() == null
+                || !file.getParents().contains(folderId);
+
+        if (saiuDaPasta) {
+            alvo.remover(fileId);
+        } else {
+            alvo.aplicar(file);
+        }
+    }
+
+    private FileList listarPagina(String pageToken) throws IOException {
+        Drive.Files.List request = drive.files().list()
+                .setQ("'" + folderId + "' in parents and trashed = false")
+                .setPageSize(TAMANHO_PAGINA)
+                .setFields("nextPageToken,files(id,name,appProperties,md5Checksum)");
+
+        if (pageToken != null) request.setPageToken(pageToken);
+
+        return request.execute();
+    }
+
+    private Optional<ItemDeCatalogo> converter(File file) {
+        Optional<SKU> skuOpt = skuViaMetadata(file);
+        if (skuOpt.isEmpty()) {
+            // sem metadata = não entra no catálogo (segurança pra não deletar por engano)
+            return Optional.empty();
+        }
+
+        SKU sku = skuOpt.get();
+
+        // ✅ NOVA REGRA:
+        // INFANTIL: a verdade técnica (tamanhos de fábrica) vem da metadata.
+        // ADULTO: pode vir da metadata (novo padrão) ou fallback via nome (legenda).
+        Set<Tamanho> tamanhos = extrairTamanhosDoArquivo(file, sku);
+
+        Disponibilidade disponibilidade = Disponibilidade.aPartirDaMascara(sku, Tamanho.mascaraDe(tamanhos));
+
+        // ✅ snapshot do que acabou de ser listado: o writer usa para evitar GETs de conferência
+        SnapshotRemoto snapshot = new SnapshotRemoto(file.getName(), file.getMd5Checksum(), file.getAppProperties());
+
+        return Optional.of(new ItemDeCatalogo(
+                sku,
+                disponibilidade,
+                file.getId(),
+                snapshot
+        ));
     }
 
     private Set<Tamanho> extrairTamanhosDoArquivo(File file, SKU sku) {
@@ -169,8 +339,8 @@ public class DriveCatalogoReader implements CatalogoReader {
             return Optional.empty();
         }
 
-        Produto produto = new Produto(clube, modelo, tipo);
-        return Optional.of(new SKU(produto));
+        // ✅ SKU canônico: mesma instância que o ERP entrega para o mesmo produto
+        return Optional.of(SKU.de(clube, modelo, tipo));
     }
 
     private Set<Tamanho> extrairTamanhosDaLegenda(String legenda) {
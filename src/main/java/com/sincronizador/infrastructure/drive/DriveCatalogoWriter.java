@@ -1,18 +1,22 @@
 package com.sincronizador.infrastructure.drive;
 
 import com.google.api.client.http.FileContent;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.FileList;
 import com.sincronizador.application.port.CatalogoWriter;
 import com.sincronizador.domain.model.Disponibilidade;
+import com.sincronizador.domain.model.ItemDeCatalogo;
 import com.sincronizador.domain.model.SKU;
+import com.sincronizador.domain.model.SnapshotRemoto;
 import com.sincronizador.domain.service.GeradorDeLegenda;
 import com.sincronizador.domain.valueobject.Tamanho;
+import com.sincronizador.infrastructure.local.OtimizadorDeImagens;
+import com.sincronizador.infrastructure.util.IndiceMd5;
 import java.util.stream.Collectors;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
-import java.security.MessageDigest;
 import java.util.*;
 
 public class DriveCatalogoWriter implements CatalogoWriter {
@@ -20,7 +24,48 @@ public class DriveCatalogoWriter implements CatalogoWriter {
     private final Drive drive;
     private final String folderId;
 
+    // md5 das imagens locais sem reler arquivos que não mudaram (tamanho + mtime)
+    private final IndiceMd5 indiceMd5;
+
+    // null = sempre upload simples
+    private final DriveUploadResumivel uploadResumivel;
+
+    // re-envios de files.create depois de conferir que o arquivo não foi criado
+    private static final int MAX_TENTATIVAS_CRIACAO = 3;
+
+    // null = envia a imagem local como está
+    private final OtimizadorDeImagens otimizador;
+
+    // != null enquanto o modo lote estiver ativo (ver iniciarLote/concluirLote)
+    private volatile DriveLoteDeMutacoes lote;
+
     public DriveCatalogoWriter(Drive drive, String folderId) {
+        this(drive, folderId, IndiceMd5.emMemoria());
+    }
+
+    public DriveCatalogoWriter(Drive drive, String folderId, IndiceMd5 indiceMd5) {
+        this(drive, folderId, indiceMd5, null);
+    }
+
+    public DriveCatalogoWriter(
+            Drive drive,
+            String folderId,
+            IndiceMd5 indiceMd5,
+            DriveUploadResumivel uploadResumivel
+    ) {
+        this(drive, folderId, indiceMd5, uploadResumivel, null);
+    }
+
+    public DriveCatalogoWriter(
+            Drive drive,
+            String folderId,
+            IndiceMd5 indiceMd5,
+            DriveUploadResumivel uploadResumivel,
+            OtimizadorDeImagens otimizador
+    ) {
+        this.uploadResumivel = uploadResumivel;
+        this.otimizador = otimizador;
+        this.indiceMd5 = Objects.requireNonNull(indiceMd5, "indiceMd5 não pode ser nulo");
         this.drive = Objects.requireNonNull(drive, "drive não pode ser nulo");
         this.folderId = Objects.requireNonNull(folderId, "folderId não pode ser nulo")
                 .trim()
@@ -42,20 +87,87 @@ public class DriveCatalogoWriter implements CatalogoWriter {
         // ✅ agora grava também os tamanhos de fábrica (para comparação técnica; nome pode ser por idade)
         metadata.setAppProperties(appPropertiesFromSku(sku, disponibilidade));
 
-        FileContent media = new FileContent(detectarMimeType(imagemLocal), imagemLocal);
+        // ✅ sobe a versão otimizada (reduzida/recomprimida), não o original
+        java.io.File envio = prepararParaEnvio(imagemLocal);
+        String mimeType = detectarMimeType(envio);
 
         try {
-            File created = drive.files()
-                    .create(metadata, media)
-                    .setFields("id,name,appProperties")
-                    .execute();
+            // ✅ imagem grande: upload em pedaços, retomável se a conexão cair
+            if (usarResumivel(envio)) {
+                String chave = sku + "|" + envio.getAbsolutePath();
+                return uploadResumivel.criar(chave, metadata, envio, mimeType, "id,name,appProperties").getId();
+            }
 
-            return created.getId();
+            return criarSemDuplicar(metadata, new FileContent(mimeType, envio));
         } catch (IOException e) {
             throw new RuntimeException("Erro ao criar arquivo no Drive para o SKU: " + sku, e);
         }
     }
 
+    /**
+     * files.create não é idempotente: o HTTP não re-envia depois de timeout/5xx (o arquivo pode ter sido criado).
+     * Como na retomada do upload resumível, pergunta ao Drive antes: se o arquivo do SKU já está na pasta,
+     * usa ele; senão, cria de novo.
+     */
+    private String criarSemDuplicar(File metadata, FileContent media) throws IOException {
+        String skuKey = metadata.getAppProperties().get(DriveMetadataKeys.SKU_KEY);
+        DriveThrottlingInitializer throttling = DriveThrottlingInitializer.de(drive);
+
+        for (int tentativa = 0; ; tentativa++) {
+            try {
+                return drive.files()
+                        .create(metadata, media)
+                        .setFields("id,name,appProperties")
+                        .execute()
+                        .getId();
+            } catch (IOException e) {
+                if (!resultadoIncerto(e) || tentativa >= MAX_TENTATIVAS_CRIACAO) throw e;
+
+                Optional<String> criado = procurarPorSkuKey(skuKey);
+                if (criado.isPresent()) return criado.get();
+
+                esperarAntesDeRecriar(throttling, tentativa);
+            }
+        }
+    }
+
+    /**
+     * Timeout / conexão caída / 408 / 5xx: o Drive pode ter criado o arquivo antes de falhar.
+     */
+    private static boolean resultadoIncerto(IOException e) {
+        if (e instanceof java.io.InterruptedIOException && !(e instanceof java.net.SocketTimeoutException)) {
+            return false; // interrompido pelo app
+        }
+        if (e instanceof HttpResponseException) {
+            int status = ((HttpResponseException) e).getStatusCode();
+            return status == 408 || (status >= 500 && status <= 504);
+        }
+        return true;
+    }
+
+    private Optional<String> procurarPorSkuKey(String skuKey) throws IOException {
+        String valor = skuKey.replace("\\", "\\\\").replace("'", "\\'");
+        FileList lista = drive.files().list()
+                .setQ("'" + folderId + "' in parents and trashed = false"
+                        + " and appProperties has { key='" + DriveMetadataKeys.SKU_KEY + "' and value='" + valor + "' }")
+                .setPageSize(1)
+                .setFields("files(id)")
+                .execute();
+
+        List<File> files = lista.getFiles();
+        return (files == null || files.isEmpty()) ? Optional.empty() : Optional.of(files.get(0).getId());
+    }
+
+    private static void esperarAntesDeRecriar(DriveThrottlingInitializer throttling, int tentativa) throws IOException {
+        long esperaMs = (throttling != null) ? throttling.esperaParaRetentativaMs(tentativa) : 1000L * (tentativa + 1);
+        try {
+            Thread.sleep(esperaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Interrompido antes de recriar o arquivo no Drive");
+        }
+    }
+
     @Override
     public void atualizarLegenda(String fileId, String novoNome) {
         Objects.requireNonNull(fileId, "fileId não pode ser nulo");
@@ -64,22 +176,51 @@ public class DriveCatalogoWriter implements CatalogoWriter {
         try {
             // ✅ evita "edit" se já estiver igual
             File atual = drive.files().get(fileId).setFields("name").execute();
-            String nomeAtual = atual.getName();
-            if (novoNome.equals(nomeAtual)) return;
+            renomearSeDiferente(fileId, atual.getName(), novoNome);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao renomear arquivo no Drive: " + fileId, e);
+        }
+    }
 
-            File patch = new File();
-            patch.setName(novoNome);
+    @Override
+    public boolean atualizarLegenda(ItemDeCatalogo item, String novoNome) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(novoNome, "novoNome não pode ser nulo");
 
-            drive.files()
-                    .update(fileId, patch)
-                    .setFields("id,name")
-                    .execute();
+        Optional<SnapshotRemoto> snapshot = item.getSnapshotRemoto();
+        if (snapshot.isEmpty()) {
+            atualizarLegenda(item.getIdExterno(), novoNome);
+            return true;
+        }
 
+        try {
+            // ✅ conferência contra o nome listado: zero round-trips no caso "já igual"
+            return renomearSeDiferente(item.getIdExterno(), snapshot.get().getNome(), novoNome);
         } catch (IOException e) {
-            throw new RuntimeException("Erro ao renomear arquivo no Drive: " + fileId, e);
+            throw new RuntimeException("Erro ao renomear arquivo no Drive: " + item.getIdExterno(), e);
         }
     }
 
+    private boolean renomearSeDiferente(String fileId, String nomeAtual, String novoNome) throws IOException {
+        if (novoNome.equals(nomeAtual)) return false;
+
+        File patch = new File();
+        patch.setName(novoNome);
+
+        DriveLoteDeMutacoes loteAtivo = lote;
+        if (loteAtivo != null) {
+            loteAtivo.agendarPatch(fileId, patch);
+            return true;
+        }
+
+        drive.files()
+                .update(fileId, patch)
+                .setFields("id,name")
+                .execute();
+
+        return true;
+    }
+
     @Override
     public void trocarImagem(String fileId, java.io.File novaImagemLocal) {
         Objects.requireNonNull(fileId, "fileId não pode ser nulo");
@@ -88,32 +229,71 @@ public class DriveCatalogoWriter implements CatalogoWriter {
         try {
             // ✅ evita upload se conteúdo for o mesmo (md5Checksum)
             File atual = drive.files().get(fileId).setFields("md5Checksum").execute();
-            String md5Remoto = atual.getMd5Checksum();
-
-            if (md5Remoto != null && !md5Remoto.isBlank()) {
-                String md5Local = calcularMd5Hex(novaImagemLocal);
-                if (md5Remoto.equalsIgnoreCase(md5Local)) {
-                    return; // nada a fazer
-                }
-            }
+            substituirConteudoSeDiferente(fileId, atual.getMd5Checksum(), novaImagemLocal);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao substituir conteúdo do arquivo no Drive: " + fileId, e);
+        }
+    }
 
-            FileContent media = new FileContent(detectarMimeType(novaImagemLocal), novaImagemLocal);
+    @Override
+    public boolean trocarImagem(ItemDeCatalogo item, java.io.File novaImagemLocal) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        validarArquivoImagem(novaImagemLocal);
 
-            // Atualiza o conteúdo mantendo id, nome e appProperties (associação fixa)
-            drive.files()
-                    .update(fileId, null, media)
-                    .setFields("id")
-                    .execute();
+        Optional<SnapshotRemoto> snapshot = item.getSnapshotRemoto();
+        if (snapshot.isEmpty()) {
+            trocarImagem(item.getIdExterno(), novaImagemLocal);
+            return true;
+        }
 
+        try {
+            return substituirConteudoSeDiferente(item.getIdExterno(), snapshot.get().getMd5Checksum(), novaImagemLocal);
         } catch (IOException e) {
-            throw new RuntimeException("Erro ao substituir conteúdo do arquivo no Drive: " + fileId, e);
+            throw new RuntimeException("Erro ao substituir conteúdo do arquivo no Drive: " + item.getIdExterno(), e);
+        }
+    }
+
+    private boolean substituirConteudoSeDiferente(String fileId, String md5Remoto, java.io.File novaImagemLocal)
+            throws IOException {
+
+        // o Drive guarda a versão otimizada: a comparação é contra ela
+        java.io.File envio = prepararParaEnvio(novaImagemLocal);
+
+        if (md5Remoto != null && !md5Remoto.isBlank()) {
+            String md5Local = indiceMd5.md5Hex(envio);
+            if (md5Remoto.equalsIgnoreCase(md5Local)) {
+                return false; // nada a fazer
+            }
         }
+
+        String mimeType = detectarMimeType(envio);
+
+        if (usarResumivel(envio)) {
+            uploadResumivel.atualizar(fileId, envio, mimeType, "id");
+            return true;
+        }
+
+        FileContent media = new FileContent(mimeType, envio);
+
+        // Atualiza o conteúdo mantendo id, nome e appProperties (associação fixa)
+        drive.files()
+                .update(fileId, null, media)
+                .setFields("id")
+                .execute();
+
+        return true;
     }
 
     @Override
     public void remover(String fileId) {
         Objects.requireNonNull(fileId, "fileId não pode ser nulo");
 
+        DriveLoteDeMutacoes loteAtivo = lote;
+        if (loteAtivo != null) {
+            loteAtivo.agendarRemocao(fileId);
+            return;
+        }
+
         try {
             drive.files().delete(fileId).execute();
         } catch (IOException e) {
@@ -154,35 +334,117 @@ public class DriveCatalogoWriter implements CatalogoWriter {
                     .setFields("appProperties")
                     .execute();
 
-            Map<String, String> propsAtuais = atual.getAppProperties();
-            if (propsAtuais == null) propsAtuais = new HashMap<>();
+            return aplicarTamanhosFabricaSeDiferente(fileId, atual.getAppProperties(), disponibilidade);
 
-            String novoValor = serializarTamanhosFabrica(disponibilidade.getTamanhosDisponiveis());
-            String atualValor = propsAtuais.get(DriveMetadataKeys.SKU_TAMANHOS_FABRICA);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao atualizar metadata de tamanhos de fábrica no Drive: " + fileId, e);
+        }
+    }
 
-            // ✅ no-op se já estiver igual (reduz chamadas e logs no Drive)
-            if (Objects.equals(normalizeCsv(atualValor), normalizeCsv(novoValor))) {
-                return false;
-            }
+    @Override
+    public boolean atualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        Objects.requireNonNull(item, "item não pode ser nulo");
+        Objects.requireNonNull(disponibilidade, "disponibilidade não pode ser nula");
 
-            Map<String, String> propsPatch = new HashMap<>(propsAtuais);
-            propsPatch.put(DriveMetadataKeys.SKU_TAMANHOS_FABRICA, novoValor);
+        Optional<SnapshotRemoto> snapshot = item.getSnapshotRemoto();
+        if (snapshot.isEmpty()) {
+            return atualizarTamanhosFabrica(item.getIdExterno(), disponibilidade);
+        }
 
-            File patch = new File();
-            patch.setAppProperties(propsPatch);
+        try {
+            return aplicarTamanhosFabricaSeDiferente(item.getIdExterno(), snapshot.get().getPropriedades(), disponibilidade);
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Erro ao atualizar metadata de tamanhos de fábrica no Drive: " + item.getIdExterno(), e);
+        }
+    }
 
-            drive.files()
-                    .update(fileId, patch)
-                    .setFields("id,appProperties")
-                    .execute();
+    private boolean aplicarTamanhosFabricaSeDiferente(
+            String fileId,
+            Map<String, String> propsAtuais,
+            Disponibilidade disponibilidade
+    ) throws IOException {
+
+        if (propsAtuais == null) propsAtuais = new HashMap<>();
+
+        // ✅ no-op se já estiver igual (reduz chamadas e logs no Drive)
+        if (!tamanhosFabricaDiferentes(propsAtuais, disponibilidade)) {
+            return false;
+        }
+        String novoValor = serializarTamanhosFabrica(disponibilidade.getTamanhosDisponiveis());
 
+        Map<String, String> propsPatch = new HashMap<>(propsAtuais);
+        propsPatch.put(DriveMetadataKeys.SKU_TAMANHOS_FABRICA, novoValor);
+
+        File patch = new File();
+        patch.setAppProperties(propsPatch);
+
+        DriveLoteDeMutacoes loteAtivo = lote;
+        if (loteAtivo != null) {
+            loteAtivo.agendarPatch(fileId, patch);
             return true;
+        }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Erro ao atualizar metadata de tamanhos de fábrica no Drive: " + fileId, e);
+        drive.files()
+                .update(fileId, patch)
+                .setFields("id,appProperties")
+                .execute();
+
+        return true;
+    }
+
+    private boolean tamanhosFabricaDiferentes(Map<String, String> propsAtuais, Disponibilidade disponibilidade) {
+        String novoValor = serializarTamanhosFabrica(disponibilidade.getTamanhosDisponiveis());
+        String atualValor = (propsAtuais == null) ? null : propsAtuais.get(DriveMetadataKeys.SKU_TAMANHOS_FABRICA);
+        return !Objects.equals(normalizeCsv(atualValor), normalizeCsv(novoValor));
+    }
+
+    // ---------------------------------------------------------------------
+    // Planejamento: mesmas conferências de "já está igual?", sem nenhuma chamada ao Drive
+    // ---------------------------------------------------------------------
+
+    @Override
+    public boolean precisaAtualizarTamanhosFabrica(ItemDeCatalogo item, Disponibilidade disponibilidade) {
+        return item.getSnapshotRemoto()
+                .map(s -> tamanhosFabricaDiferentes(s.getPropriedades(), disponibilidade))
+                .orElse(true);
+    }
+
+    @Override
+    public boolean precisaTrocarImagem(ItemDeCatalogo item, java.io.File imagemLocal) {
+        String md5Remoto = item.getSnapshotRemoto().map(SnapshotRemoto::getMd5Checksum).orElse(null);
+        if (md5Remoto == null || md5Remoto.isBlank()) return true;
+
+        // o Drive guarda a versão otimizada: a comparação é contra ela
+        return !md5Remoto.equalsIgnoreCase(indiceMd5.md5Hex(prepararParaEnvio(imagemLocal)));
+    }
+
+    @Override
+    public long bytesDeEnvio(java.io.File imagemLocal) {
+        return prepararParaEnvio(imagemLocal).length();
+    }
+
+    @Override
+    public synchronized void iniciarLote() {
+        if (lote == null) {
+            lote = new DriveLoteDeMutacoes(drive);
         }
     }
 
+    @Override
+    public Map<String, String> concluirLote() {
+        DriveLoteDeMutacoes pendente;
+        synchronized (this) {
+            pendente = lote;
+            lote = null;
+        }
+        // fim de ciclo de sync: persiste os hashes calculados nele
+        indiceMd5.salvar();
+        if (pendente == null) return Map.of();
+
+        return pendente.enviar();
+    }
+
     private String normalizeCsv(String csv) {
         if (csv == null) return "";
         String trimmed = csv.trim();
@@ -242,6 +504,19 @@ public class DriveCatalogoWriter implements CatalogoWriter {
         return String.join(",", tokens);
     }
 
+    @Override
+    public void prepararImagens(Collection<java.io.File> imagensLocais) {
+        if (otimizador != null) otimizador.prepararImagens(imagensLocais);
+    }
+
+    private java.io.File prepararParaEnvio(java.io.File imagemLocal) {
+        return (otimizador == null) ? imagemLocal : otimizador.otimizar(imagemLocal);
+    }
+
+    private boolean usarResumivel(java.io.File arquivo) {
+        return uploadResumivel != null && uploadResumivel.deveUsar(arquivo);
+    }
+
     private void validarArquivoImagem(java.io.File arquivo) {
         Objects.requireNonNull(arquivo, "arquivo não pode ser nulo");
         if (!arquivo.exists() || !arquivo.isFile()) {
@@ -264,21 +539,4 @@ public class DriveCatalogoWriter implements CatalogoWriter {
         if (n.endsWith(".webp")) return "image/webp";
         return "image/jpeg";
     }
-
-    private String calcularMd5Hex(java.io.File arquivo) {
-        try (InputStream in = Files.newInputStream(arquivo.toPath())) {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] buf = new byte[8192];
-            int r;
-            while ((r = in.read(buf)) > 0) {
-                md.update(buf, 0, r);
-            }
-            byte[] digest = md.digest();
-            StringBuilder sb = new StringBuilder(digest.length * 2);
-            for (byte b : digest) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao calcular MD5 do arquivo: " + arquivo.getAbsolutePath(), e);
-        }
-    }
 }
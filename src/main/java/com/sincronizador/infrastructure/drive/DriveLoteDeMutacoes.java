@@ -0,0 +1,203 @@
+package com.sincronizador.infrastructure.drive;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonError.ErrorInfo;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acumula mutações de metadata (nome/appProperties) e remoções para enviar
+ * em batch requests do Drive, em vez de um round-trip HTTPS por chamada.
+ *
+ * - Vários patches no mesmo arquivo viram UM update (nome + appProperties mesclados).
+ * - Remoção de um arquivo descarta patches pendentes dele.
+ * - Cada batch respeita o limite de chamadas por request da API.
+ * - Sub-requisições com throttling (429 / 403 rateLimitExceeded) avisam o DriveRateLimiter (AIMD)
+ *   e são re-enviadas num novo batch, com o mesmo backoff das requisições avulsas;
+ *   5xx também são re-enviadas (PATCH/DELETE são idempotentes).
+ */
+final class DriveLoteDeMutacoes {
+
+    // limite documentado do Drive para chamadas por batch request
+    static final int LIMITE_POR_LOTE = 100;
+
+    private final Drive drive;
+
+    // política de retentativa/limiter do client; null = sem retentativa das sub-requisições
+    private final DriveThrottlingInitializer throttling;
+
+    private final Map<String, File> patches = new LinkedHashMap<>();
+    private final Set<String> remocoes = new LinkedHashSet<>();
+
+    DriveLoteDeMutacoes(Drive drive) {
+        this.drive = Objects.requireNonNull(drive, "drive não pode ser nulo");
+        this.throttling = DriveThrottlingInitializer.de(drive);
+    }
+
+    synchronized void agendarPatch(String fileId, File patch) {
+        if (remocoes.contains(fileId)) return;
+
+        File acumulado = patches.computeIfAbsent(fileId, k -> new File());
+
+        if (patch.getName() != null) {
+            acumulado.setName(patch.getName());
+        }
+
+        if (patch.getAppProperties() != null) {
+            Map<String, String> props = acumulado.getAppProperties() == null
+                    ? new HashMap<>()
+                    : new HashMap<>(acumulado.getAppProperties());
+            props.putAll(patch.getAppProperties());
+            acumulado.setAppProperties(props);
+        }
+    }
+
+    synchronized void agendarRemocao(String fileId) {
+        patches.remove(fileId);
+        remocoes.add(fileId);
+    }
+
+    /**
+     * Envia tudo o que foi acumulado e esvazia o lote.
+     * @return falhas por fileId (mensagem de erro); vazio se tudo deu certo
+     */
+    synchronized Map<String, String> enviar() {
+        List<Operacao> operacoes = new ArrayList<>(patches.size() + remocoes.size());
+        patches.forEach((id, patch) -> operacoes.add(new Operacao(id, patch)));
+        remocoes.forEach(id -> operacoes.add(new Operacao(id, null)));
+
+        patches.clear();
+        remocoes.clear();
+
+        Map<String, String> falhas = new LinkedHashMap<>();
+
+        for (int inicio = 0; inicio < operacoes.size(); inicio += LIMITE_POR_LOTE) {
+            List<Operacao> fatia = operacoes.subList(inicio, Math.min(inicio + LIMITE_POR_LOTE, operacoes.size()));
+            enviarFatia(fatia, falhas);
+        }
+
+        return falhas;
+    }
+
+    private void enviarFatia(List<Operacao> fatia, Map<String, String> falhas) {
+        int maxTentativas = (throttling == null) ? 0 : throttling.getMaxTentativas();
+        List<Operacao> pendentes = fatia;
+
+        for (int tentativa = 0; !pendentes.isEmpty(); tentativa++) {
+            List<Operacao> retentaveis = new ArrayList<>();
+
+            try {
+                executarBatch(pendentes, falhas, retentaveis);
+            } catch (IOException e) {
+                // falha do request inteiro (o HTTP já re-tentou o que podia): a fatia fica sem confirmação
+                String msg = "Falha no batch request do Drive: " + e.getMessage();
+                for (Operacao op : pendentes) {
+                    falhas.putIfAbsent(op.fileId, msg);
+                }
+                return;
+            }
+
+            if (retentaveis.isEmpty() || tentativa >= maxTentativas) return;
+
+            long esperaMs = throttling.esperaParaRetentativaMs(tentativa);
+            throttling.getLimiter().registrarRetentativa(TimeUnit.MILLISECONDS.toNanos(esperaMs));
+            try {
+                Thread.sleep(esperaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // as falhas registradas ficam como estão
+            }
+
+            for (Operacao op : retentaveis) falhas.remove(op.fileId);
+            pendentes = retentaveis;
+        }
+    }
+
+    private void executarBatch(List<Operacao> operacoes, Map<String, String> falhas, List<Operacao> retentaveis)
+            throws IOException {
+
+        BatchRequest batch = drive.batch();
+
+        DriveRateLimiter limiter = limiter();
+        for (Operacao op : operacoes) {
+            if (op.patch == null) {
+                drive.files().delete(op.fileId).queue(batch, new Callback<>(op, falhas, retentaveis, limiter));
+            } else {
+                drive.files()
+                        .update(op.fileId, op.patch)
+                        .setFields("id")
+                        .queue(batch, new Callback<>(op, falhas, retentaveis, limiter));
+            }
+        }
+
+        batch.execute();
+    }
+
+    private DriveRateLimiter limiter() {
+        return (throttling == null) ? null : throttling.getLimiter();
+    }
+
+    /**
+     * 429, ou 403 com motivo de quota (rateLimitExceeded / userRateLimitExceeded).
+     */
+    static boolean ehThrottling(GoogleJsonError e) {
+        if (e == null) return false;
+        if (e.getCode() == 429) return true;
+        if (e.getCode() != 403 || e.getErrors() == null) return false;
+
+        for (ErrorInfo info : e.getErrors()) {
+            String motivo = info.getReason();
+            if (motivo != null && motivo.toLowerCase(Locale.ROOT).contains("ratelimitexceeded")) return true;
+        }
+        return false;
+    }
+
+    private static final class Operacao {
+        private final String fileId;
+        private final File patch; // null = remoção
+
+        private Operacao(String fileId, File patch) {
+            this.fileId = fileId;
+            this.patch = patch;
+        }
+    }
+
+    private static final class Callback<T> extends JsonBatchCallback<T> {
+        private final Operacao op;
+        private final Map<String, String> falhas;
+        private final List<Operacao> retentaveis;
+        private final DriveRateLimiter limiter;
+
+        private Callback(Operacao op, Map<String, String> falhas, List<Operacao> retentaveis, DriveRateLimiter limiter) {
+            this.op = op;
+            this.falhas = falhas;
+            this.retentaveis = retentaveis;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onSuccess(T resultado, HttpHeaders responseHeaders) {
+            if (limiter != null) limiter.registrarSucesso();
+        }
+
+        @Override
+        public void onFailure(GoogleJsonError e, HttpHeaders responseHeaders) {
+            String msg = (e == null) ? "Erro desconhecido" : e.getCode() + " " + e.getMessage();
+            falhas.put(op.fileId, msg);
+
+            boolean throttled = ehThrottling(e);
+            if (throttled && limiter != null) limiter.registrarThrottling();
+
+            if (throttled || (e != null && e.getCode() >= 500 && e.getCode() <= 504)) {
+                retentaveis.add(op);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.sincronizador.infrastructure.drive;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de taxa client-side compartilhado por todas as chamadas ao Drive.
+ *
+ * - Token bucket: cada requisição consome 1 token; tokens voltam na taxa atual (req/s).
+ * - AIMD: cada resposta bem-sucedida soma um pouco na taxa (aditivo);
+ *   cada resposta de throttling (429 / 403 rateLimitExceeded) corta a taxa pela metade (multiplicativo).
+ * - Métricas: quanto tempo as threads ficaram esperando token e quantas respostas foram throttled.
+ */
+public class DriveRateLimiter {
+
+    // evita cortar a taxa várias vezes pela mesma "rajada" de 429 vindas de threads paralelas
+    private static final long JANELA_REDUCAO_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double taxaMinima;
+    private final double taxaMaxima;
+    private final double incrementoPorSucesso;
+    private final double fatorReducao;
+
+    private double taxaAtual;
+    private double tokens;
+    private long ultimoReabastecimento;
+    private long ultimaReducao;
+
+    private final AtomicLong requisicoes = new AtomicLong();
+    private final AtomicLong respostasThrottled = new AtomicLong();
+    private final AtomicLong retentativas = new AtomicLong();
+    private final AtomicLong tempoEsperaNanos = new AtomicLong();
+    private final AtomicLong tempoBackoffNanos = new AtomicLong();
+
+    public DriveRateLimiter(double requisicoesPorSegundo) {
+        this(requisicoesPorSegundo, 0.5, requisicoesPorSegundo * 2, 0.05, 0.5);
+    }
+
+    public DriveRateLimiter(
+            double taxaInicial,
+            double taxaMinima,
+            double taxaMaxima,
+            double incrementoPorSucesso,
+            double fatorReducao
+    ) {
+        if (taxaInicial <= 0 || taxaMinima <= 0 || taxaMaxima < taxaMinima) {
+            throw new IllegalArgumentException("Taxas inválidas para o rate limiter do Drive");
+        }
+        if (fatorReducao <= 0 || fatorReducao >= 1) {
+            throw new IllegalArgumentException("fatorReducao deve estar entre 0 e 1");
+        }
+
+        this.taxaMinima = taxaMinima;
+        this.taxaMaxima = taxaMaxima;
+        this.incrementoPorSucesso = incrementoPorSucesso;
+        this.fatorReducao = fatorReducao;
+
+        this.taxaAtual = Math.min(Math.max(taxaInicial, taxaMinima), taxaMaxima);
+        this.tokens = 1;
+        this.ultimoReabastecimento = System.nanoTime();
+        this.ultimaReducao = 0;
+    }
+
+    /**
+     * Bloqueia até haver token disponível para UMA requisição.
+     * A reserva é feita dentro do lock e a espera fora dele (várias threads esperam em fila justa).
+     */
+    public void adquirir() throws InterruptedException {
+        long espera;
+
+        synchronized (this) {
+            reabastecer();
+            tokens -= 1;
+            espera = (tokens >= 0) ? 0 : (long) ((-tokens / taxaAtual) * 1_000_000_000L);
+        }
+
+        requisicoes.incrementAndGet();
+
+        if (espera > 0) {
+            tempoEsperaNanos.addAndGet(espera);
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    public synchronized void registrarSucesso() {
+        taxaAtual = Math.min(taxaMaxima, taxaAtual + incrementoPorSucesso);
+    }
+
+    public synchronized void registrarThrottling() {
+        respostasThrottled.incrementAndGet();
+
+        long agora = System.nanoTime();
+        if (ultimaReducao != 0 && agora - ultimaReducao < JANELA_REDUCAO_NANOS) return;
+
+        reabastecer();
+        taxaAtual = Math.max(taxaMinima, taxaAtual * fatorReducao);
+        // zera o saldo: depois de um 429 ninguém sai em rajada
+        tokens = Math.min(tokens, 0);
+        ultimaReducao = agora;
+    }
+
+    void registrarRetentativa(long backoffNanos) {
+        retentativas.incrementAndGet();
+        tempoBackoffNanos.addAndGet(Math.max(0, backoffNanos));
+    }
+
+    private void reabastecer() {
+        long agora = System.nanoTime();
+        double decorrido = (agora - ultimoReabastecimento) / 1_000_000_000.0;
+        ultimoReabastecimento = agora;
+
+        // capacidade do balde = 1 segundo de taxa (mínimo 1 token)
+        double capacidade = Math.max(1, taxaAtual);
+        tokens = Math.min(capacidade, tokens + decorrido * taxaAtual);
+    }
+
+    public synchronized double getTaxaAtual() {
+        return taxaAtual;
+    }
+
+    public Metricas getMetricas() {
+        return new Metricas(
+                requisicoes.get(),
+                respostasThrottled.get(),
+                retentativas.get(),
+                TimeUnit.NANOSECONDS.toMillis(tempoEsperaNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(tempoBackoffNanos.get()),
+                getTaxaAtual()
+        );
+    }
+
+    /**
+     * Fotografia das métricas acumuladas desde a criação do limiter.
+     */
+    public static final class Metricas {
+        private final long requisicoes;
+        private final long respostasThrottled;
+        private final long retentativas;
+        private final long tempoEsperaTokenMs;
+        private final long tempoBackoffMs;
+        private final double taxaAtual;
+
+        private Metricas(
+                long requisicoes,
+                long respostasThrottled,
+                long retentativas,
+                long tempoEsperaTokenMs,
+                long tempoBackoffMs,
+                double taxaAtual
+        ) {
+            this.requisicoes = requisicoes;
+            this.respostasThrottled = respostasThrottled;
+            this.retentativas = retentativas;
+            this.tempoEsperaTokenMs = tempoEsperaTokenMs;
+            this.tempoBackoffMs = tempoBackoffMs;
+            this.taxaAtual = taxaAtual;
+        }
+
+        public long getRequisicoes() {
+            return requisicoes;
+        }
+
+        public long getRespostasThrottled() {
+            return respostasThrottled;
+        }
+
+        public long getRetentativas() {
+            return retentativas;
+        }
+
+        public long getTempoEsperaTokenMs() {
+            return tempoEsperaTokenMs;
+        }
+
+        public long getTempoBackoffMs() {
+            return tempoBackoffMs;
+        }
+
+        /**
+         * Tempo total que as chamadas passaram seguradas (fila do token bucket + backoff).
+         */
+        public long getTempoThrottledMs() {
+            return tempoEsperaTokenMs + tempoBackoffMs;
+        }
+
+        public double getTaxaAtual() {
+            return taxaAtual;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.ROOT,
+                    "requisicoes=%d throttled=%d retentativas=%d tempoThrottledMs=%d (token=%d, backoff=%d) taxa=%.2f req/s",
+                    requisicoes, respostasThrottled, retentativas,
+                    getTempoThrottledMs(), tempoEsperaTokenMs, tempoBackoffMs, taxaAtual);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.sincronizador.infrastructure.drive;
+
+import com.google.api.client.http.*;
+import com.google.api.client.util.ExponentialBackOff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camada única na frente do client do Drive (Reader, Writer, MetadataWriter e batch requests):
+ *
+ * - antes de cada tentativa HTTP pega um token do DriveRateLimiter;
+ * - respostas 429 / 403 (rateLimitExceeded) reduzem a taxa e são re-tentadas (o Drive não processou o pedido);
+ * - 5xx/408 e falhas de rede só são re-tentadas em requisições idempotentes (ver idempotente()),
+ *   com backoff exponencial e jitter (respeitando Retry-After): um files.create re-enviado depois de um
+ *   timeout pode duplicar o arquivo, então quem cria confere antes de re-enviar (ver DriveCatalogoWriter);
+ * - preserva o comportamento do initializer original (credencial OAuth, refresh em 401).
+ */
+public class DriveThrottlingInitializer implements HttpRequestInitializer {
+
+    private final HttpRequestInitializer delegado;
+    private final DriveRateLimiter limiter;
+    private final int maxTentativas;
+    private final long backoffInicialMs;
+    private final long backoffMaximoMs;
+
+    // lote do Drive (só carrega PATCH/DELETE, ver DriveLoteDeMutacoes)
+    private static final String CAMINHO_BATCH = "/batch/drive/v3";
+
+    // o motivo do 403 vem logo no começo do JSON de erro
+    private static final int LIMITE_ESPIADA_403 = 16 * 1024;
+
+    public DriveThrottlingInitializer(HttpRequestInitializer delegado, DriveRateLimiter limiter, int maxTentativas) {
+        this(delegado, limiter, maxTentativas, 500, 32_000);
+    }
+
+    public DriveThrottlingInitializer(
+            HttpRequestInitializer delegado,
+            DriveRateLimiter limiter,
+            int maxTentativas,
+            long backoffInicialMs,
+            long backoffMaximoMs
+    ) {
+        this.delegado = delegado;
+        this.limiter = Objects.requireNonNull(limiter, "limiter não pode ser nulo");
+        this.maxTentativas = Math.max(0, maxTentativas);
+        this.backoffInicialMs = Math.max(1, backoffInicialMs);
+        this.backoffMaximoMs = Math.max(this.backoffInicialMs, backoffMaximoMs);
+    }
+
+    @Override
+    public void initialize(HttpRequest request) throws IOException {
+        if (delegado != null) delegado.initialize(request);
+
+        HttpExecuteInterceptor interceptorOriginal = request.getInterceptor();
+        HttpResponseInterceptor respostaOriginal = request.getResponseInterceptor();
+        HttpUnsuccessfulResponseHandler handlerOriginal = request.getUnsuccessfulResponseHandler();
+
+        request.setNumberOfRetries(maxTentativas);
+
+        request.setInterceptor(r -> {
+            if (interceptorOriginal != null) interceptorOriginal.intercept(r);
+            try {
+                limiter.adquirir();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrompido aguardando limite de taxa do Drive");
+            }
+        });
+
+        request.setResponseInterceptor(resp -> {
+            if (respostaOriginal != null) respostaOriginal.interceptResponse(resp);
+            if (resp.isSuccessStatusCode()) limiter.registrarSucesso();
+        });
+
+        request.setUnsuccessfulResponseHandler(new RetentativaHandler(handlerOriginal));
+
+        // falhas de rede (timeout, conexão resetada) também ganham backoff, se re-enviar for seguro
+        HttpBackOffIOExceptionHandler backoffDeRede = new HttpBackOffIOExceptionHandler(
+                new ExponentialBackOff.Builder()
+                        .setInitialIntervalMillis((int) backoffInicialMs)
+                        .setMaxIntervalMillis((int) backoffMaximoMs)
+                        .setRandomizationFactor(0.5)
+                        .build()
+        );
+        request.setIOExceptionHandler((r, supportsRetry) ->
+                idempotente(r) && backoffDeRede.handleIOException(r, supportsRetry));
+    }
+
+    /**
+     * Re-enviar não muda o resultado: GET/HEAD/PUT/PATCH/DELETE, PATCH via POST + override,
+     * o batch (só PATCH/DELETE) e a abertura de sessão resumível (nada é criado até o último pedaço).
+     * files.create simples (POST) NÃO é: depois de um timeout o arquivo pode ter sido criado.
+     */
+    static boolean idempotente(HttpRequest request) {
+        String metodo = request.getRequestMethod();
+        if (metodo == null) return false;
+
+        switch (metodo) {
+            case HttpMethods.GET, HttpMethods.HEAD, HttpMethods.PUT,
+                    HttpMethods.PATCH, HttpMethods.DELETE, HttpMethods.OPTIONS:
+                return true;
+            case HttpMethods.POST:
+                break;
+            default:
+                return false;
+        }
+
+        String override = request.getHeaders().getFirstHeaderStringValue("X-HTTP-Method-Override");
+        if (HttpMethods.PATCH.equalsIgnoreCase(override)) return true;
+
+        GenericUrl url = request.getUrl();
+        if (url == null) return false;
+        String caminho = url.getRawPath();
+        if (caminho != null && caminho.endsWith(CAMINHO_BATCH)) return true;
+
+        return "resumable".equals(url.getFirst("uploadType"));
+    }
+
+    /**
+     * O initializer instalado no client (para quem re-tenta por conta própria, ex.: sub-requisições do batch).
+     * null se o client não foi montado com ele.
+     */
+    static DriveThrottlingInitializer de(com.google.api.services.drive.Drive drive) {
+        HttpRequestInitializer init = drive.getRequestFactory().getInitializer();
+        return (init instanceof DriveThrottlingInitializer) ? (DriveThrottlingInitializer) init : null;
+    }
+
+    DriveRateLimiter getLimiter() {
+        return limiter;
+    }
+
+    int getMaxTentativas() {
+        return maxTentativas;
+    }
+
+    /**
+     * Mesma espera entre tentativas usada nas respostas HTTP (exponencial com jitter).
+     */
+    long esperaParaRetentativaMs(int tentativa) {
+        return calcularEsperaMs(tentativa, null);
+    }
+
+    /**
+     * Um handler por HttpRequest: o contador de tentativas é da requisição, não global.
+     */
+    private final class RetentativaHandler implements HttpUnsuccessfulResponseHandler {
+
+        private final HttpUnsuccessfulResponseHandler original;
+        private int tentativas = 0;
+
+        private RetentativaHandler(HttpUnsuccessfulResponseHandler original) {
+            this.original = original;
+        }
+
+        @Override
+        public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry)
+                throws IOException {
+
+            // ex.: Credential renova o token em 401
+            if (original != null && original.handleResponse(request, response, supportsRetry)) {
+                return true;
+            }
+
+            int status = response.getStatusCode();
+            boolean throttled = status == 429 || (status == 403 && ehRateLimit403(response));
+            boolean falhaTransitoria = status == 408 || (status >= 500 && status <= 504);
+            boolean retentavel = throttled || (falhaTransitoria && idempotente(request));
+
+            if (!retentavel) return false;
+            if (throttled) limiter.registrarThrottling();
+            if (!supportsRetry || tentativas >= maxTentativas) return false;
+
+            long esperaMs = calcularEsperaMs(tentativas++, response);
+            limiter.registrarRetentativa(TimeUnit.MILLISECONDS.toNanos(esperaMs));
+
+            try {
+                Thread.sleep(esperaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private long calcularEsperaMs(int tentativa, HttpResponse response) {
+        Long retryAfter = (response == null) ? null : lerRetryAfterMs(response);
+        if (retryAfter != null) return Math.min(backoffMaximoMs, retryAfter);
+
+        // exponencial com jitter: base * 2^n * [0.5, 1.5)
+        long base = backoffInicialMs << Math.min(tentativa, 16);
+        double jitter = 0.5 + ThreadLocalRandom.current().nextDouble();
+        return Math.min(backoffMaximoMs, (long) (base * jitter));
+    }
+
+    private Long lerRetryAfterMs(HttpResponse response) {
+        try {
+            String v = response.getHeaders().getFirstHeaderStringValue("Retry-After");
+            if (v == null || v.isBlank()) return null;
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(v.trim()));
+        } catch (Exception e) {
+            return null; // formato data HTTP: ignora e usa o backoff normal
+        }
+    }
+
+    /**
+     * 403 do Drive pode ser permissão (não re-tentar) ou quota (re-tentar).
+     * Espia o começo do corpo com mark/reset (o HttpResponse entrega o conteúdo num BufferedInputStream
+     * justamente para isso): o erro continua inteiro para o GoogleJsonResponseException / callback do batch.
+     */
+    private boolean ehRateLimit403(HttpResponse response) {
+        try {
+            InputStream in = response.getContent();
+            if (in == null || !in.markSupported()) return false;
+
+            byte[] inicio;
+            in.mark(LIMITE_ESPIADA_403);
+            try {
+                inicio = in.readNBytes(LIMITE_ESPIADA_403);
+            } finally {
+                in.reset();
+            }
+
+            // cobre "rateLimitExceeded" e "userRateLimitExceeded"
+            return new String(inicio, response.getContentCharset())
+                    .toLowerCase(Locale.ROOT).contains("ratelimitexceeded");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
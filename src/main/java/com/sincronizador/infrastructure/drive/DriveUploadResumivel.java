@@ -0,0 +1,437 @@
+package com.sincronizador.infrastructure.drive;
+
+import com.google.api.client.http.*;
+import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upload resumível do Drive (protocolo uploadType=resumable) em pedaços.
+ *
+ * - o arquivo vai em chunks de tamanho configurável (múltiplo de 256 KiB, exigência da API);
+ * - se a conexão cair no meio, consulta quantos bytes o Drive já recebeu e continua dali;
+ * - a URI da sessão fica salva em disco: se a sync for interrompida, a próxima execução
+ *   retoma o mesmo upload (desde que o arquivo local não tenha mudado de tamanho/mtime);
+ * - guarda métricas de vazão por arquivo.
+ *
+ * As requisições passam pelo requestFactory do Drive, ou seja, pelo mesmo
+ * rate limiter / credencial das demais chamadas.
+ */
+public class DriveUploadResumivel {
+
+    public static final int MULTIPLO_CHUNK = 256 * 1024;
+
+    private static final String URL_UPLOAD = "https://www.googleapis.com/upload/drive/v3/files";
+
+    // o Drive expira sessões de upload em ~1 semana; margem de 1 dia
+    private static final long VALIDADE_SESSAO_MS = TimeUnit.DAYS.toMillis(6);
+
+    // falhas seguidas sem nenhum byte novo confirmado antes de desistir do arquivo
+    private static final int MAX_FALHAS_SEGUIDAS = 5;
+
+    private static final int MAX_METRICAS_GUARDADAS = 50;
+
+    private final Drive drive;
+    private final int tamanhoChunk;
+    private final long aPartirDeBytes;
+    private final Path arquivoSessoes;
+    private final Properties sessoes = new Properties();
+
+    private final Deque<MetricaUpload> ultimos = new ArrayDeque<>();
+    private final AtomicLong arquivosEnviados = new AtomicLong();
+    private final AtomicLong bytesEnviados = new AtomicLong();
+    private final AtomicLong tempoEnvioNanos = new AtomicLong();
+    private final AtomicLong retomadas = new AtomicLong();
+
+    /**
+     * @param tamanhoChunk    bytes por PUT (arredondado para múltiplo de 256 KiB)
+     * @param aPartirDeBytes  arquivos até esse tamanho continuam no upload simples (1 request)
+     * @param arquivoSessoes  onde guardar sessões pendentes; null = só em memória
+     */
+    public DriveUploadResumivel(Drive drive, int tamanhoChunk, long aPartirDeBytes, Path arquivoSessoes) {
+        this.drive = Objects.requireNonNull(drive, "drive não pode ser nulo");
+        this.tamanhoChunk = Math.max(1, tamanhoChunk / MULTIPLO_CHUNK) * MULTIPLO_CHUNK;
+        this.aPartirDeBytes = Math.max(0, aPartirDeBytes);
+        this.arquivoSessoes = arquivoSessoes;
+        carregarSessoes();
+    }
+
+    public boolean deveUsar(java.io.File arquivo) {
+        return arquivo.length() > aPartirDeBytes;
+    }
+
+    /**
+     * Cria o arquivo (metadata + conteúdo).
+     * Obs.: numa retomada vale a metadata da sessão original; se a legenda mudou
+     * nesse meio-tempo, a próxima sync renomeia.
+     */
+    public File criar(String chave, File metadata, java.io.File conteudo, String mimeType, String campos)
+            throws IOException {
+        GenericUrl url = new GenericUrl(URL_UPLOAD);
+        url.set("uploadType", "resumable");
+        url.set("fields", campos);
+        return enviar("criar:" + chave, HttpMethods.POST, url, metadata, conteudo, mimeType);
+    }
+
+    /**
+     * Substitui o conteúdo de um arquivo existente (id, nome e appProperties ficam).
+     */
+    public File atualizar(String fileId, java.io.File conteudo, String mimeType, String campos)
+            throws IOException {
+        GenericUrl url = new GenericUrl(URL_UPLOAD + "/" + fileId);
+        url.set("uploadType", "resumable");
+        url.set("fields", campos);
+        return enviar("atualizar:" + fileId, HttpMethods.PATCH, url, new File(), conteudo, mimeType);
+    }
+
+    private File enviar(
+            String chave,
+            String metodo,
+            GenericUrl urlInicio,
+            File metadata,
+            java.io.File conteudo,
+            String mimeType
+    ) throws IOException {
+
+        long total = conteudo.length();
+        long modificadoEm = conteudo.lastModified();
+        long inicio = System.nanoTime();
+        int retomadasDoArquivo = 0;
+        long offsetInicial = 0;
+
+        String sessao = sessaoSalva(chave, total, modificadoEm);
+        Situacao situacao = null;
+
+        if (sessao != null) {
+            situacao = consultar(sessao, total);
+            if (situacao.perdida()) {
+                sessao = null;
+            } else {
+                retomadasDoArquivo++;
+                offsetInicial = (situacao.concluido != null) ? total : situacao.offset;
+            }
+        }
+
+        if (sessao == null) {
+            sessao = iniciar(metodo, urlInicio, metadata, mimeType, total);
+            registrarSessao(chave, sessao, total, modificadoEm);
+            situacao = new Situacao(0, null);
+        }
+
+        int falhasSeguidas = 0;
+
+        try (FileChannel canal = FileChannel.open(conteudo.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(tamanhoChunk, total));
+
+            while (situacao.concluido == null) {
+                long offset = situacao.offset;
+                Situacao proxima;
+
+                try {
+                    int tamanho = (int) Math.min(tamanhoChunk, total - offset);
+                    proxima = (tamanho > 0)
+                            ? enviarChunk(sessao, ler(canal, buffer, offset, tamanho), offset, total)
+                            : consultar(sessao, total);
+                } catch (IOException e) {
+                    if (++falhasSeguidas > MAX_FALHAS_SEGUIDAS) throw e;
+                    esperar(falhasSeguidas);
+                    // conexão caiu no meio do chunk: pergunta ao Drive até onde chegou
+                    proxima = consultarSemFalhar(sessao, total, situacao);
+                    retomadasDoArquivo++;
+                }
+
+                if (proxima.perdida()) {
+                    esquecerSessao(chave);
+                    throw new IOException("Sessão de upload expirou no Drive: " + conteudo.getName());
+                }
+                if (proxima.concluido != null || proxima.offset > offset) falhasSeguidas = 0;
+
+                situacao = proxima;
+            }
+        }
+
+        esquecerSessao(chave);
+        registrarMetrica(conteudo.getName(), total - offsetInicial, System.nanoTime() - inicio, retomadasDoArquivo);
+        return situacao.concluido;
+    }
+
+    private String iniciar(String metodo, GenericUrl url, File metadata, String mimeType, long total)
+            throws IOException {
+
+        HttpRequestFactory factory = drive.getRequestFactory();
+        JsonHttpContent corpo = new JsonHttpContent(drive.getJsonFactory(), metadata);
+
+        // HttpURLConnection não fala PATCH: mesmo truque do client oficial (POST + override)
+        boolean override = metodo.equals(HttpMethods.PATCH) && !factory.getTransport().supportsMethod(metodo);
+        HttpRequest request = factory.buildRequest(override ? HttpMethods.POST : metodo, url, corpo);
+        if (override) request.getHeaders().set("X-HTTP-Method-Override", HttpMethods.PATCH);
+
+        request.getHeaders().set("X-Upload-Content-Type", mimeType);
+        request.getHeaders().set("X-Upload-Content-Length", total);
+
+        HttpResponse response = request.execute();
+        try {
+            String location = response.getHeaders().getLocation();
+            if (location == null || location.isBlank()) {
+                throw new IOException("Drive não devolveu a URI da sessão de upload");
+            }
+            return location;
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    private Situacao enviarChunk(String sessao, byte[] dados, long offset, long total) throws IOException {
+        HttpRequest request = requisicaoDeSessao(sessao, new ByteArrayContent(null, dados));
+        request.getHeaders().setContentRange("bytes " + offset + "-" + (offset + dados.length - 1) + "/" + total);
+        return interpretar(request.execute());
+    }
+
+    private Situacao consultar(String sessao, long total) throws IOException {
+        HttpRequest request = requisicaoDeSessao(sessao, new EmptyContent());
+        request.getHeaders().setContentRange("bytes */" + total);
+        return interpretar(request.execute());
+    }
+
+    private Situacao consultarSemFalhar(String sessao, long total, Situacao anterior) {
+        try {
+            return consultar(sessao, total);
+        } catch (IOException e) {
+            // rede ainda fora: tenta o mesmo chunk de novo na próxima volta
+            return anterior;
+        }
+    }
+
+    /**
+     * PUT na URI da sessão. Sem retentativa automática nem redirect:
+     * 308 é o "continue daqui" do protocolo e falhas são tratadas consultando o offset.
+     */
+    private HttpRequest requisicaoDeSessao(String sessao, HttpContent conteudo) throws IOException {
+        HttpRequest request = drive.getRequestFactory().buildPutRequest(new GenericUrl(sessao), conteudo);
+        request.setNumberOfRetries(0);
+        request.setFollowRedirects(false);
+        request.setThrowExceptionOnExecuteError(false);
+        request.setParser(drive.getObjectParser());
+        return request;
+    }
+
+    private Situacao interpretar(HttpResponse response) throws IOException {
+        int status = response.getStatusCode();
+        try {
+            if (status == 200 || status == 201) {
+                return new Situacao(-1, response.parseAs(File.class));
+            }
+            if (status == 308) {
+                return new Situacao(proximoOffset(response.getHeaders().getRange()), null);
+            }
+            if (status == 404 || status == 410) {
+                return Situacao.PERDIDA;
+            }
+            if (status == 408 || status == 429 || status >= 500) {
+                // transitório: o chamador consulta o offset e tenta de novo
+                throw new IOException("Falha transitória no upload (HTTP " + status + ")");
+            }
+            throw new HttpResponseException(response);
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    // "bytes=0-1048575" -> 1048576; sem header = nada recebido ainda
+    private static long proximoOffset(String range) {
+        if (range == null || range.isBlank()) return 0;
+        int traco = range.lastIndexOf('-');
+        try {
+            return Long.parseLong(range.substring(traco + 1).trim()) + 1;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] ler(FileChannel canal, ByteBuffer buffer, long offset, int tamanho) throws IOException {
+        buffer.clear();
+        buffer.limit(tamanho);
+        long posicao = offset;
+        while (buffer.hasRemaining()) {
+            int lidos = canal.read(buffer, posicao);
+            if (lidos < 0) throw new IOException("Arquivo encolheu durante o upload");
+            posicao += lidos;
+        }
+        return Arrays.copyOf(buffer.array(), tamanho);
+    }
+
+    private static void esperar(int falhas) throws IOException {
+        try {
+            Thread.sleep(Math.min(16_000L, 500L << Math.min(falhas, 5)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("Upload interrompido");
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Sessões persistidas: chave -> uri|tamanho|mtime|criadaEm
+    // ---------------------------------------------------------------------
+
+    private String sessaoSalva(String chave, long tamanho, long modificadoEm) {
+        String v = sessoes.getProperty(chave);
+        if (v == null) return null;
+
+        String[] p = v.split("\\|");
+        try {
+            boolean valida = p.length == 4
+                    && Long.parseLong(p[1]) == tamanho
+                    && Long.parseLong(p[2]) == modificadoEm
+                    && System.currentTimeMillis() - Long.parseLong(p[3]) < VALIDADE_SESSAO_MS;
+            if (valida) return p[0];
+        } catch (NumberFormatException ignored) {
+        }
+
+        // arquivo mudou ou sessão velha: começa do zero
+        esquecerSessao(chave);
+        return null;
+    }
+
+    private void registrarSessao(String chave, String uri, long tamanho, long modificadoEm) {
+        sessoes.setProperty(chave, uri + "|" + tamanho + "|" + modificadoEm + "|" + System.currentTimeMillis());
+        salvarSessoes();
+    }
+
+    private void esquecerSessao(String chave) {
+        if (sessoes.remove(chave) != null) salvarSessoes();
+    }
+
+    private void carregarSessoes() {
+        if (arquivoSessoes == null || !Files.isRegularFile(arquivoSessoes)) return;
+        try (InputStream in = Files.newInputStream(arquivoSessoes)) {
+            sessoes.load(in);
+        } catch (IOException e) {
+            // sem sessões salvas: uploads recomeçam do zero
+            sessoes.clear();
+        }
+    }
+
+    private synchronized void salvarSessoes() {
+        if (arquivoSessoes == null) return;
+        try {
+            Files.createDirectories(arquivoSessoes.toAbsolutePath().getParent());
+
+            Path tmp = arquivoSessoes.resolveSibling(arquivoSessoes.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                sessoes.store(out, "Sessões de upload resumível pendentes no Drive (gerado pelo app)");
+            }
+            Files.move(tmp, arquivoSessoes, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao salvar sessões de upload: " + arquivoSessoes, e);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Métricas
+    // ---------------------------------------------------------------------
+
+    private void registrarMetrica(String nome, long bytes, long nanos, int retomadasDoArquivo) {
+        arquivosEnviados.incrementAndGet();
+        bytesEnviados.addAndGet(bytes);
+        tempoEnvioNanos.addAndGet(nanos);
+        retomadas.addAndGet(retomadasDoArquivo);
+
+        synchronized (ultimos) {
+            ultimos.addLast(new MetricaUpload(nome, bytes, TimeUnit.NANOSECONDS.toMillis(nanos), retomadasDoArquivo));
+            while (ultimos.size() > MAX_METRICAS_GUARDADAS) ultimos.removeFirst();
+        }
+    }
+
+    /**
+     * Últimos uploads resumíveis (mais antigo primeiro).
+     */
+    public List<MetricaUpload> getUltimosUploads() {
+        synchronized (ultimos) {
+            return new ArrayList<>(ultimos);
+        }
+    }
+
+    /**
+     * Resumo acumulado desde a criação.
+     */
+    public String getResumo() {
+        long ms = TimeUnit.NANOSECONDS.toMillis(tempoEnvioNanos.get());
+        long bytes = bytesEnviados.get();
+        return String.format(Locale.ROOT,
+                "uploads resumíveis=%d bytes=%d vazão média=%.0f KB/s retomadas=%d",
+                arquivosEnviados.get(), bytes, kbPorSegundo(bytes, ms), retomadas.get());
+    }
+
+    private static double kbPorSegundo(long bytes, long ms) {
+        return (ms <= 0) ? 0 : (bytes / 1024.0) / (ms / 1000.0);
+    }
+
+    public static final class MetricaUpload {
+        private final String arquivo;
+        private final long bytes;
+        private final long duracaoMs;
+        private final int retomadas;
+
+        private MetricaUpload(String arquivo, long bytes, long duracaoMs, int retomadas) {
+            this.arquivo = arquivo;
+            this.bytes = bytes;
+            this.duracaoMs = duracaoMs;
+            this.retomadas = retomadas;
+        }
+
+        public String getArquivo() {
+            return arquivo;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getDuracaoMs() {
+            return duracaoMs;
+        }
+
+        public int getRetomadas() {
+            return retomadas;
+        }
+
+        public double getKbPorSegundo() {
+            return kbPorSegundo(bytes, duracaoMs);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d bytes em %d ms (%.0f KB/s, retomadas=%d)",
+                    arquivo, bytes, duracaoMs, getKbPorSegundo(), retomadas);
+        }
+    }
+
+    /**
+     * Estado da sessão no Drive: offset do próximo byte, arquivo concluído ou sessão perdida.
+     */
+    private static final class Situacao {
+        static final Situacao PERDIDA = new Situacao(-2, null);
+
+        final long offset;
+        final File concluido;
+
+        Situacao(long offset, File concluido) {
+            this.offset = offset;
+            this.concluido = concluido;
+        }
+
+        boolean perdida() {
+            return this == PERDIDA;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.sincronizador.infrastructure.erp;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.Objects;
+
+/**
+ * Cria o pool de conexões do ERP (MySQL).
+ *
+ * - conexões reaproveitadas entre leituras (sem handshake TCP/TLS/auth a cada refresh);
+ * - prepared statements no servidor com cache por conexão (o SQL de estoque é parseado uma vez);
+ * - pool "aquecido": mantém minimoOcioso conexões abertas e validadas em background;
+ * - leitura por cursor (useCursorFetch) para tabelas grandes.
+ */
+public final class ErpDataSourceFactory {
+
+    private ErpDataSourceFactory() {}
+
+    public static HikariDataSource criar(
+            String jdbcUrl,
+            String usuario,
+            String senha,
+            int tamanhoPool,
+            int minimoOcioso
+    ) {
+        return new HikariDataSource(configuracao(jdbcUrl, usuario, senha, tamanhoPool, minimoOcioso));
+    }
+
+    /**
+     * Configuração do pool, sem abri-lo.
+     */
+    static HikariConfig configuracao(
+            String jdbcUrl,
+            String usuario,
+            String senha,
+            int tamanhoPool,
+            int minimoOcioso
+    ) {
+        Objects.requireNonNull(jdbcUrl, "jdbcUrl não pode ser nulo");
+
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("erp-pool");
+        cfg.setJdbcUrl(jdbcUrl);
+        cfg.setUsername(usuario);
+        cfg.setPassword(senha);
+
+        cfg.setMaximumPoolSize(Math.max(1, tamanhoPool));
+        cfg.setMinimumIdle(Math.max(0, Math.min(minimoOcioso, tamanhoPool)));
+        cfg.setReadOnly(true);
+
+        // não derruba a inicialização se o ERP estiver fora: o pool enche quando ele voltar
+        cfg.setInitializationFailTimeout(-1);
+        cfg.setConnectionTimeout(10_000);
+        cfg.setKeepaliveTime(5 * 60_000);
+        cfg.setMaxLifetime(30 * 60_000);
+
+        // MySQL Connector/J: prepared statements no servidor + cache por conexão
+        cfg.addDataSourceProperty("useServerPrepStmts", "true");
+        cfg.addDataSourceProperty("cachePrepStmts", "true");
+        cfg.addDataSourceProperty("prepStmtCacheSize", "64");
+        cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        cfg.addDataSourceProperty("useLocalSessionState", "true");
+        cfg.addDataSourceProperty("cacheServerConfiguration", "true");
+
+        // com fetchSize > 0 no statement, o driver usa cursor no servidor em vez de
+        // trazer o ResultSet inteiro para a memória
+        cfg.addDataSourceProperty("useCursorFetch", "true");
+
+        return cfg;
+    }
+}
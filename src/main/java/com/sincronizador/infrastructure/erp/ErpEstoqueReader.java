@@ -2,87 +2,408 @@ package com.sincronizador.infrastructure.erp;
 
 import com.sincronizador.application.port.EstoqueReader;
 import com.sincronizador.domain.model.Disponibilidade;
-import com.sincronizador.domain.model.Estoque;
-import com.sincronizador.domain.model.Produto;
 import com.sincronizador.domain.model.SKU;
 import com.sincronizador.domain.valueobject.Tamanho;
 import com.sincronizador.domain.valueobject.Tipo;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 public class ErpEstoqueReader implements EstoqueReader {
 
-    // TODO (final): mover pra config/env, não deixar senha no código
-    private static final String JDBC_URL = "jdbc:mysql://localhost:3306/gemini_erp";
-    private static final String JDBC_USER = "root";
-    private static final String JDBC_PASSWORD = "Senhalp3";
-
     // ✅ Plano A: só traz o que está em estoque (> 0)
+    // sem ORDER BY (SQL portável, nenhum sort no banco que atende o PDV): as grafias de um produto
+    // (espaços, caixa, acento) são juntadas aqui pela chave canônica do SKU, não pela collation da coluna
     private static final String SQL_ESTOQUE = """
                 SELECT Clube, Modelo, Tipo, Tamanho, QuantidadeEstoque
                 FROM produtos
                 WHERE QuantidadeEstoque > 0
             """;
 
+    public static final int TAMANHO_FETCH_PADRAO = 1000;
+
+    // nome de coluna vai direto no SQL: só aceita identificador simples
+    private static final Pattern IDENTIFICADOR_SQL = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    // pool de conexões (ver ErpDataSourceFactory): cada leitura só pega uma conexão emprestada
+    private final DataSource dataSource;
+
+    // linhas por ida ao servidor (cursor no MySQL, useCursorFetch=true); 0 = driver carrega tudo
+    private final int tamanhoFetch;
+
+    // ====== modo change-capture (coluna de "atualizado em") ======
+    private final String colunaAtualizacao;
+    private final long intervaloRecargaCompletaMs;
+
+    private EstoquePorGrafia estoque = new EstoquePorGrafia();
+    private final Map<SKU, Disponibilidade> snapshot = new HashMap<>();
+    private Timestamp marcaDagua;
+    private long ultimaRecargaCompleta;
+
+    /**
+     * Modo original: toda chamada relê a tabela inteira.
+     */
+    public ErpEstoqueReader(DataSource dataSource) {
+        this(dataSource, null, 0);
+    }
+
+    /**
+     * Modo change-capture: a primeira leitura carrega o snapshot completo;
+     * as seguintes buscam só os produtos com linhas alteradas desde a marca d'água
+     * (colunaAtualizacao >= marca) e substituem, no snapshot, as grafias que voltaram.
+     *
+     * @param colunaAtualizacao          coluna de data/hora atualizada pelo ERP a cada alteração
+     * @param intervaloRecargaCompletaMs de quanto em quanto tempo refazer a carga completa
+     *                                   (pega linhas APAGADAS, que a marca d'água não enxerga); 0 = nunca
+     */
+    public ErpEstoqueReader(DataSource dataSource, String colunaAtualizacao, long intervaloRecargaCompletaMs) {
+        this(dataSource, colunaAtualizacao, intervaloRecargaCompletaMs, TAMANHO_FETCH_PADRAO);
+    }
+
+    /**
+     * @param tamanhoFetch linhas buscadas por vez no cursor do servidor; 0 = ResultSet inteiro em memória
+     */
+    public ErpEstoqueReader(
+            DataSource dataSource,
+            String colunaAtualizacao,
+            long intervaloRecargaCompletaMs,
+            int tamanhoFetch
+    ) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource não pode ser nulo");
+        this.tamanhoFetch = Math.max(0, tamanhoFetch);
+
+        if (colunaAtualizacao != null && !colunaAtualizacao.isBlank()) {
+            String c = colunaAtualizacao.trim();
+            if (!IDENTIFICADOR_SQL.matcher(c).matches()) {
+                throw new IllegalArgumentException("Nome de coluna inválido para change-capture: " + c);
+            }
+            this.colunaAtualizacao = c;
+        } else {
+            this.colunaAtualizacao = null;
+        }
+        this.intervaloRecargaCompletaMs = Math.max(0, intervaloRecargaCompletaMs);
+    }
+
     @Override
     public List<Disponibilidade> obterDisponibilidades() {
+        if (colunaAtualizacao == null) {
+            return lerCompleto();
+        }
+        return lerIncremental();
+    }
+
+    /**
+     * Modo completo: as linhas chegam pelo cursor (tamanhoFetch por vez) e só a máscara de cada grafia
+     * fica em memória; os SKUs são entregues, na ordem de SKU.ORDEM, quando o ResultSet termina
+     * (só então se sabe que nenhuma outra grafia do produto vai aparecer).
+     * Modo change-capture: atualiza o snapshot e percorre ele.
+     */
+    @Override
+    public void percorrerDisponibilidades(Consumer<Disponibilidade> consumidor) {
+        Objects.requireNonNull(consumidor, "consumidor não pode ser nulo");
+
+        if (colunaAtualizacao != null) {
+            lerIncremental().forEach(consumidor);
+            return;
+        }
+
+        EstoquePorGrafia lido;
+        try (Connection connection = abrirConexao()) {
+            lido = lerEstoque(connection);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler estoque do ERP", e);
+        }
+        lido.percorrer(consumidor);
+    }
+
+    private List<Disponibilidade> lerCompleto() {
+        List<Disponibilidade> disponibilidades = new ArrayList<>();
+        percorrerDisponibilidades(disponibilidades::add);
+        return disponibilidades;
+    }
+
+    /**
+     * Lê SQL_ESTOQUE em streaming, agregando as linhas por grafia.
+     */
+    private EstoquePorGrafia lerEstoque(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SQL_ESTOQUE)) {
+            if (tamanhoFetch > 0) stmt.setFetchSize(tamanhoFetch);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return agregar(rs, false);
+            }
+        }
+    }
+
+    private synchronized List<Disponibilidade> lerIncremental() {
+        long agora = System.currentTimeMillis();
+
+        boolean precisaCargaCompleta = marcaDagua == null
+                || (intervaloRecargaCompletaMs > 0 && agora - ultimaRecargaCompleta >= intervaloRecargaCompletaMs);
+
+        try (Connection connection = abrirConexao()) {
+            if (precisaCargaCompleta) {
+                carregarSnapshotCompleto(connection);
+                ultimaRecargaCompleta = agora;
+            } else {
+                aplicarDelta(connection);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao ler estoque do ERP", e);
+        }
+
+        return new ArrayList<>(snapshot.values());
+    }
+
+    private void carregarSnapshotCompleto(Connection connection) throws SQLException {
+        // marca lida ANTES da carga: o que mudar durante ela volta no próximo delta (>=)
+        Timestamp novaMarca;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT MAX(" + colunaAtualizacao + ") FROM produtos");
+             ResultSet rs = stmt.executeQuery()) {
+            novaMarca = rs.next() ? rs.getTimestamp(1) : null;
+        }
+
+        EstoquePorGrafia novo = lerEstoque(connection);
+
+        estoque = novo;
+        snapshot.clear();
+        novo.percorrer(d -> snapshot.put(d.getSku(), d));
+
+        // tabela vazia ou coluna ainda sem datas: qualquer linha datada entra no próximo delta
+        marcaDagua = (novaMarca != null) ? novaMarca : new Timestamp(0);
+    }
+
+    /**
+     * Relê TODAS as linhas dos produtos (Clube + Modelo) que tiveram alguma linha alterada,
+     * sem o filtro > 0: assim uma grafia que zerou aparece com quantidade 0 e sai do snapshot,
+     * em vez de ser confundida com "não mudou".
+     *
+     * O JOIN compara Clube/Modelo na collation da coluna, então cada grafia que volta vem com
+     * todas as suas linhas; grafias do mesmo SKU canônico que não voltaram (ex.: com espaço duplo)
+     * não mudaram e continuam somando na disponibilidade do SKU.
+     */
+    private void aplicarDelta(Connection connection) throws SQLException {
+        String sql = """
+                SELECT p.Clube, p.Modelo, p.Tipo, p.Tamanho, p.QuantidadeEstoque, p.%1$s AS AtualizadoEm
+                FROM produtos p
+                JOIN (SELECT DISTINCT Clube, Modelo FROM produtos WHERE %1$s >= ?) alterados
+                  ON alterados.Clube = p.Clube AND alterados.Modelo = p.Modelo
+                """.formatted(colunaAtualizacao);
+
+        EstoquePorGrafia alterado;
+        Timestamp novaMarca = marcaDagua;
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setTimestamp(1, marcaDagua);
+            if (tamanhoFetch > 0) stmt.setFetchSize(tamanhoFetch);
 
-        Map<SKU, Map<Tamanho, Integer>> estoqueAgrupado = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                alterado = agregar(rs, true);
+                if (alterado.maiorAtualizacao != null && alterado.maiorAtualizacao.after(novaMarca)) {
+                    novaMarca = alterado.maiorAtualizacao;
+                }
+            }
+        }
 
-        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
-                PreparedStatement stmt = connection.prepareStatement(SQL_ESTOQUE);
-                ResultSet rs = stmt.executeQuery()) {
+        for (SKU sku : estoque.substituirGrafias(alterado)) {
+            Disponibilidade d = estoque.disponibilidade(sku);
+            if (d == null) {
+                snapshot.remove(sku); // zerou
+            } else {
+                snapshot.remove(sku); // a grafia exibida pode ter mudado
+                snapshot.put(sku, d);
+            }
+        }
+
+        marcaDagua = novaMarca;
+    }
+
+    private Connection abrirConexao() throws SQLException {
+        return dataSource.getConnection();
+    }
 
-            while (rs.next()) {
+    /**
+     * Soma as linhas do ResultSet por grafia (Clube/Modelo/Tipo exatamente como no banco).
+     * @param comZerados true no delta: a grafia entra mesmo sem nenhum tamanho > 0 (para sair do snapshot)
+     */
+    private EstoquePorGrafia agregar(ResultSet rs, boolean comZerados) throws SQLException {
+        EstoquePorGrafia lido = new EstoquePorGrafia();
+        LeitorDeGrafia leitor = new LeitorDeGrafia();
 
-                String clube = rs.getString("Clube");
-                String modelo = rs.getString("Modelo");
+        while (rs.next()) {
 
-                Tipo tipo = mapearTipo(rs.getString("Tipo"));
-                Tamanho tamanho = mapearTamanho(rs.getString("Tamanho"));
+            Tamanho tamanho = mapearTamanho(rs.getString("Tamanho"));
 
-                int quantidade = rs.getInt("QuantidadeEstoque");
+            int quantidade = rs.getInt("QuantidadeEstoque");
 
-                // ✅ Redundante (porque já filtrou na query), mas deixa blindado
-                if (quantidade <= 0)
-                    continue;
+            // ✅ Redundante na carga completa (porque já filtrou na query), mas deixa blindado
+            if (quantidade <= 0 && !comZerados)
+                continue;
 
-                if (clube == null || modelo == null || tipo == null || tamanho == null) {
-                    continue;
+            if (comZerados) {
+                Timestamp ts = rs.getTimestamp("AtualizadoEm");
+                if (ts != null && (lido.maiorAtualizacao == null || ts.after(lido.maiorAtualizacao))) {
+                    lido.maiorAtualizacao = ts;
                 }
+            }
+
+            Grafia grafia = leitor.ler(rs);
+            if (grafia == null || (tamanho == null && !comZerados)) {
+                continue;
+            }
+
+            lido.somar(grafia, (tamanho != null && quantidade > 0) ? tamanho.getBit() : 0);
+        }
+
+        return lido;
+    }
+
+    /**
+     * Clube/Modelo/Tipo como vieram do banco + o SKU canônico correspondente.
+     * Grafias diferentes do mesmo produto (espaços, caixa, acento, "M" x "Masculino") têm o mesmo SKU.
+     */
+    private static final class Grafia implements Comparable<Grafia> {
+        private final String clube;
+        private final String modelo;
+        private final String tipo;
+        private final SKU sku;
+
+        private Grafia(String clube, String modelo, String tipo, SKU sku) {
+            this.clube = clube;
+            this.modelo = modelo;
+            this.tipo = tipo;
+            this.sku = sku;
+        }
+
+        @Override
+        public int compareTo(Grafia o) {
+            int c = clube.compareTo(o.clube);
+            if (c == 0) c = modelo.compareTo(o.modelo);
+            return (c != 0) ? c : tipo.compareTo(o.tipo);
+        }
 
-                Produto produto = new Produto(clube, modelo, tipo);
-                SKU sku = new SKU(produto);
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Grafia)) return false;
+            Grafia g = (Grafia) o;
+            return clube.equals(g.clube) && modelo.equals(g.modelo) && tipo.equals(g.tipo);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clube, modelo, tipo);
+        }
+    }
 
-                Map<Tamanho, Integer> porTamanho = estoqueAgrupado
-                        .computeIfAbsent(sku, k -> new EnumMap<>(Tamanho.class));
+    /**
+     * Máscara de tamanhos em estoque por grafia, agrupada pelo SKU canônico.
+     * A disponibilidade de um SKU é a união das grafias; a grafia exibida é a menor
+     * (determinística, não depende da ordem das linhas).
+     */
+    private final class EstoquePorGrafia {
+        private final Map<SKU, Map<Grafia, Integer>> porSku = new HashMap<>();
+
+        // maior colunaAtualizacao vista (só no delta)
+        private Timestamp maiorAtualizacao;
+
+        void somar(Grafia grafia, int bits) {
+            porSku.computeIfAbsent(grafia.sku, k -> new HashMap<>(2)).merge(grafia, bits, (a, b) -> a | b);
+        }
 
-                // soma caso exista linha duplicada por tamanho
-                porTamanho.merge(tamanho, quantidade, Integer::sum);
+        /**
+         * Troca as grafias que vieram em outro (delta) pelas novas; grafia zerada sai.
+         * @return SKUs afetados
+         */
+        Set<SKU> substituirGrafias(EstoquePorGrafia outro) {
+            for (Map.Entry<SKU, Map<Grafia, Integer>> e : outro.porSku.entrySet()) {
+                Map<Grafia, Integer> grafias = porSku.computeIfAbsent(e.getKey(), k -> new HashMap<>(2));
+                e.getValue().forEach((grafia, bits) -> {
+                    if (bits == 0) grafias.remove(grafia);
+                    else grafias.put(grafia, bits);
+                });
+                if (grafias.isEmpty()) porSku.remove(e.getKey());
             }
+            return outro.porSku.keySet();
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao ler estoque do ERP", e);
+        /**
+         * null quando o SKU não tem nenhum tamanho válido em estoque.
+         */
+        Disponibilidade disponibilidade(SKU sku) {
+            Map<Grafia, Integer> grafias = porSku.get(sku);
+            if (grafias == null) return null;
+
+            int mascara = 0;
+            Grafia exibida = null;
+            for (Map.Entry<Grafia, Integer> e : grafias.entrySet()) {
+                if (e.getValue() == 0) continue;
+                mascara |= e.getValue();
+                if (exibida == null || e.getKey().compareTo(exibida) < 0) exibida = e.getKey();
+            }
+            if (exibida == null) return null;
+
+            return paraDisponibilidade(exibida.sku, mascara);
         }
 
-        List<Disponibilidade> disponibilidades = new ArrayList<>();
+        /**
+         * Entrega as disponibilidades na ordem estável dos SKUs.
+         */
+        void percorrer(Consumer<Disponibilidade> consumidor) {
+            List<SKU> skus = new ArrayList<>(porSku.keySet());
+            skus.sort(SKU.ORDEM);
+            for (SKU sku : skus) {
+                Disponibilidade disponibilidade = disponibilidade(sku);
+
+                // ✅ Com a query >0 isso já vem sempre com tamanhos,
+                // mas deixo a blindagem para nunca devolver SKU “vazio”
+                if (disponibilidade != null) {
+                    consumidor.accept(disponibilidade);
+                }
+            }
+        }
+    }
 
-        for (Map.Entry<SKU, Map<Tamanho, Integer>> entry : estoqueAgrupado.entrySet()) {
-            Estoque estoque = new Estoque(entry.getKey(), entry.getValue());
-            Disponibilidade disponibilidade = Disponibilidade.aPartirDoEstoque(estoque);
+    /**
+     * Lê a grafia da linha. Linhas seguidas da mesma grafia (uma por tamanho) reaproveitam a anterior
+     * sem normalizar nada; uma grafia nova passa pelo pool (SKU.de).
+     */
+    private final class LeitorDeGrafia {
+        private Grafia grafia;
 
-            // ✅ Com a query >0 isso já vem sempre com tamanhos,
-            // mas deixo a blindagem para nunca devolver SKU “vazio”
-            if (disponibilidade != null && disponibilidade.estaDisponivel()) {
-                disponibilidades.add(disponibilidade);
+        Grafia ler(ResultSet rs) throws SQLException {
+            String c = rs.getString("Clube");
+            String m = rs.getString("Modelo");
+            String t = rs.getString("Tipo");
+
+            if (grafia != null && grafia.clube.equals(c) && grafia.modelo.equals(m) && grafia.tipo.equals(t)) {
+                return grafia;
+            }
+
+            Tipo tipo = mapearTipo(t);
+            if (c == null || m == null || tipo == null) {
+                return null;
             }
+
+            grafia = new Grafia(c, m, t, SKU.de(c, m, tipo));
+            return grafia;
         }
+    }
 
-        return disponibilidades;
+    /**
+     * Retorna null quando o SKU não tem nenhum tamanho válido em estoque.
+     */
+    private static Disponibilidade paraDisponibilidade(SKU sku, int mascara) {
+        Disponibilidade disponibilidade = Disponibilidade.aPartirDaMascara(sku, mascara);
+        return disponibilidade.estaDisponivel() ? disponibilidade : null;
     }
 
     private Tipo mapearTipo(String tipoBanco) {
@@ -0,0 +1,42 @@
+package com.sincronizador.infrastructure.local;
+
+import com.sincronizador.domain.model.SKU;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chave das associações SKU -> imagem: a chave canônica do SKU (CLUBE|MODELO|TIPO sem acento,
+ * maiúscula e com espaços normalizados). Assim qualquer grafia do produto (ERP ou Drive) acha a mesma imagem.
+ *
+ * Arquivos gravados antes usavam só trim + maiúscula: migrar() converte essas chaves na carga.
+ */
+final class ChavesDeImagem {
+
+    private ChavesDeImagem() {}
+
+    static String de(SKU sku) {
+        return sku.getChave();
+    }
+
+    /**
+     * Devolve as associações com as chaves canônicas.
+     * Se duas chaves antigas viram a mesma, fica a que já era canônica; senão, a primeira em ordem alfabética.
+     */
+    static Map<String, String> migrar(Map<String, String> associacoes) {
+        List<String> chaves = new ArrayList<>(associacoes.keySet());
+        Collections.sort(chaves);
+
+        Map<String, String> migradas = new LinkedHashMap<>();
+        for (String chave : chaves) {
+            if (SKU.canonizarChave(chave).equals(chave)) migradas.put(chave, associacoes.get(chave));
+        }
+        for (String chave : chaves) {
+            migradas.putIfAbsent(SKU.canonizarChave(chave), associacoes.get(chave));
+        }
+        return migradas;
+    }
+}
@@ -0,0 +1,450 @@
+package com.sincronizador.infrastructure.local;
+
+import com.sincronizador.application.port.ImagemRepository;
+import com.sincronizador.domain.model.SKU;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * ImagemRepository sem monitor global:
+ *
+ * - associações SKU -> arquivo num ConcurrentHashMap (leituras sem lock: workers da sync e UI);
+ * - cada escrita acrescenta UMA linha em imagens.journal (custo O(1), em vez de reescrever o properties),
+ *   com CRC32 no fim: um registro cortado por uma queda no meio da escrita é descartado na releitura;
+ * - passando de LIMITE_JOURNAL linhas, o estado é compactado em imagens.properties e o journal zerado;
+ * - os arquivos da pasta imagens ficam numa listagem em memória, mantida por um WatchService:
+ *   "a imagem existe?" vira consulta ao Set, sem stat no disco por SKU.
+ *
+ * Formato compatível com PropertiesImagemRepository: mesma pasta, mesma chave (canônica, ver ChavesDeImagem)
+ * e mesmo imagens.properties, então dá para alternar entre as duas implementações.
+ */
+public class JournalImagemRepository implements ImagemRepository {
+
+    private static final int LIMITE_JOURNAL = 500;
+
+    private static final char OP_PUT = '+';
+    private static final char OP_REMOVE = '-';
+
+    // primeira linha de um journal com checksum; sem ela, é um journal antigo (registros sem CRC)
+    private static final String CABECALHO = "#journal v2";
+
+    private final Path imagesDir;
+    private final Path propsFile;
+    private final Path journalFile;
+
+    private final Map<String, String> associacoes = new ConcurrentHashMap<>();
+
+    // só escritas em disco passam por aqui
+    private final Object escrita = new Object();
+    private int linhasNoJournal;
+    // o cabeçalho já foi gravado no journal atual
+    private boolean journalIniciado;
+
+    // nomes dos arquivos em imagesDir; null = watcher indisponível (volta a consultar o disco)
+    private volatile Set<String> arquivosPresentes;
+    private WatchService watchService;
+
+    public JournalImagemRepository() {
+        this(Paths.get("./data/catalogo"));
+    }
+
+    public JournalImagemRepository(Path baseDir) {
+        this.imagesDir = baseDir.resolve("imagens");
+        this.propsFile = baseDir.resolve("imagens.properties");
+        this.journalFile = baseDir.resolve("imagens.journal");
+        inicializar();
+        carregar();
+        iniciarMonitoramento();
+    }
+
+    private void inicializar() {
+        try {
+            Files.createDirectories(imagesDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao inicializar storage local de imagens", e);
+        }
+    }
+
+    private void carregar() {
+        if (Files.exists(propsFile)) {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(propsFile)) {
+                props.load(in);
+            } catch (IOException e) {
+                throw new RuntimeException("Falha ao carregar imagens.properties", e);
+            }
+            for (String chave : props.stringPropertyNames()) {
+                associacoes.put(chave, props.getProperty(chave));
+            }
+        }
+
+        boolean haviaJournal = Files.exists(journalFile);
+        if (haviaJournal) {
+            List<String> linhas = lerLinhasCompletas();
+            boolean comChecksum = !linhas.isEmpty() && linhas.get(0).equals(CABECALHO);
+            for (int i = comChecksum ? 1 : 0; i < linhas.size(); i++) {
+                if (aplicar(linhas.get(i), comChecksum)) linhasNoJournal++;
+            }
+        }
+
+        // chaves gravadas com a normalização antiga (só trim + maiúscula) passam para a canônica
+        Map<String, String> migradas = ChavesDeImagem.migrar(associacoes);
+        boolean migrou = !migradas.equals(associacoes);
+        if (migrou) {
+            associacoes.clear();
+            associacoes.putAll(migradas);
+        }
+
+        // começa a sessão com o journal limpo
+        if (haviaJournal || migrou) {
+            synchronized (escrita) {
+                compactar();
+            }
+        }
+    }
+
+    @Override
+    public boolean possuiImagem(SKU sku) {
+        return obterImagem(sku).isPresent();
+    }
+
+    @Override
+    public Optional<File> obterImagem(SKU sku) {
+        return Optional.ofNullable(resolver(skuKey(sku)));
+    }
+
+    /**
+     * Uma passada no mapa + listagem em memória; nenhum acesso a disco se o watcher estiver ativo.
+     */
+    @Override
+    public Map<SKU, File> obterImagens(Collection<SKU> skus) {
+        Map<SKU, File> out = new LinkedHashMap<>();
+        for (SKU sku : skus) {
+            if (sku == null) continue;
+            File f = resolver(skuKey(sku));
+            if (f != null) out.put(sku, f);
+        }
+        return out;
+    }
+
+    private File resolver(String key) {
+        String fileName = associacoes.get(key);
+        if (fileName == null || fileName.isBlank()) return null;
+
+        String nome = fileName.trim();
+        Path p = imagesDir.resolve(nome);
+        if (existe(nome, p)) return p.toFile();
+
+        // a listagem pode estar atrasada em relação ao disco: confirma antes de apagar a associação
+        if (Files.isRegularFile(p)) {
+            marcarPresente(nome, true);
+            return p.toFile();
+        }
+
+        // Se o arquivo sumiu, limpa a associação para não ficar “podre” (uma linha no journal)
+        synchronized (escrita) {
+            if (associacoes.remove(key, fileName)) {
+                registrar(OP_REMOVE, key, null);
+            }
+        }
+        return null;
+    }
+
+    private boolean existe(String nome, Path p) {
+        Set<String> presentes = arquivosPresentes;
+        return (presentes != null) ? presentes.contains(nome) : Files.isRegularFile(p);
+    }
+
+    @Override
+    public File salvarAssociacao(SKU sku, File imagemOrigem) {
+        if (sku == null) throw new IllegalArgumentException("SKU não pode ser nulo");
+        if (imagemOrigem == null) throw new IllegalArgumentException("imagemOrigem não pode ser nula");
+        if (!imagemOrigem.exists() || !imagemOrigem.isFile()) {
+            throw new IllegalArgumentException("Imagem inválida: " + imagemOrigem);
+        }
+
+        String key = skuKey(sku);
+        String ext = extrairExtensao(imagemOrigem.getName());
+        String destinoNome = slug(key) + ext;
+
+        Path destino = imagesDir.resolve(destinoNome);
+
+        // copia fora do lock; temporário + move para ninguém ler a imagem pela metade
+        try {
+            Path tmp = Files.createTempFile(imagesDir, "copia-", ".tmp");
+            try {
+                Files.copy(imagemOrigem.toPath(), tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                marcarPresente(destinoNome, true);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao copiar imagem para o storage local", e);
+        }
+
+        synchronized (escrita) {
+            String anterior = associacoes.put(key, destinoNome);
+            if (!destinoNome.equals(anterior)) {
+                registrar(OP_PUT, key, destinoNome);
+            }
+        }
+
+        return destino.toFile();
+    }
+
+    @Override
+    public void removerAssociacao(SKU sku) {
+        String key = skuKey(sku);
+
+        String fileName;
+        synchronized (escrita) {
+            fileName = associacoes.remove(key);
+            if (fileName != null) registrar(OP_REMOVE, key, null);
+        }
+
+        if (fileName != null && !fileName.isBlank()) {
+            try {
+                Files.deleteIfExists(imagesDir.resolve(fileName.trim()));
+                marcarPresente(fileName.trim(), false);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Listagem da pasta imagens + WatchService
+    // ---------------------------------------------------------------------
+
+    private void iniciarMonitoramento() {
+        try {
+            watchService = imagesDir.getFileSystem().newWatchService();
+            imagesDir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            // sem watcher: segue consultando o disco a cada pedido
+            watchService = null;
+            return;
+        }
+
+        listarPasta();
+
+        Thread t = new Thread(this::monitorar, "sincronizador-imagens-watch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void listarPasta() {
+        Set<String> nomes = ConcurrentHashMap.newKeySet();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(imagesDir)) {
+            for (Path p : ds) {
+                if (Files.isRegularFile(p)) nomes.add(p.getFileName().toString());
+            }
+            arquivosPresentes = nomes;
+        } catch (IOException e) {
+            arquivosPresentes = null;
+        }
+    }
+
+    private void monitorar() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // perdeu eventos: relista tudo
+                        listarPasta();
+                        continue;
+                    }
+                    String nome = ((Path) ev.context()).getFileName().toString();
+                    boolean criado = ev.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                            && Files.isRegularFile(imagesDir.resolve(nome));
+                    marcarPresente(nome, criado);
+                }
+
+                if (!key.reset()) break; // pasta removida/inacessível
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // encerrando
+        }
+        arquivosPresentes = null;
+    }
+
+    private void marcarPresente(String nome, boolean presente) {
+        Set<String> presentes = arquivosPresentes;
+        if (presentes == null) return;
+        if (presente) presentes.add(nome);
+        else presentes.remove(nome);
+    }
+
+    /**
+     * Para o watcher (ex.: ao fechar o app).
+     */
+    public void fechar() {
+        arquivosPresentes = null;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Journal: "#journal v2" e depois "+<TAB>chave<TAB>arquivo<TAB>crc" / "-<TAB>chave<TAB>crc"
+    // (tab, \n e \\ escapados; crc = CRC32 em hexa do registro antes dele)
+    // ---------------------------------------------------------------------
+
+    /**
+     * Chamado com o lock de escrita.
+     */
+    private void registrar(char op, String key, String fileName) {
+        String registro = (op == OP_PUT)
+                ? op + "\t" + escapar(key) + "\t" + escapar(fileName)
+                : op + "\t" + escapar(key);
+
+        String linha = registro + "\t" + crc(registro) + "\n";
+        if (!journalIniciado) linha = CABECALHO + "\n" + linha;
+
+        try {
+            Files.write(journalFile, linha.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao gravar imagens.journal", e);
+        }
+        journalIniciado = true;
+
+        if (++linhasNoJournal >= LIMITE_JOURNAL) compactar();
+    }
+
+    /**
+     * Linhas terminadas em \n; o que vier depois do último \n é uma escrita interrompida e fica de fora.
+     */
+    private List<String> lerLinhasCompletas() {
+        String conteudo;
+        try {
+            conteudo = new String(Files.readAllBytes(journalFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao ler imagens.journal", e);
+        }
+
+        List<String> linhas = new ArrayList<>();
+        int inicio = 0;
+        for (int fim = conteudo.indexOf('\n'); fim >= 0; fim = conteudo.indexOf('\n', inicio)) {
+            linhas.add(conteudo.substring(inicio, fim));
+            inicio = fim + 1;
+        }
+        return linhas;
+    }
+
+    /**
+     * @return true se o registro estava íntegro e foi aplicado
+     */
+    private boolean aplicar(String linha, boolean comChecksum) {
+        if (comChecksum) {
+            int fim = linha.lastIndexOf('\t');
+            // registro cortado/corrompido (queda no meio de uma escrita): ignora
+            if (fim < 0 || !linha.substring(fim + 1).equals(crc(linha.substring(0, fim)))) return false;
+            linha = linha.substring(0, fim);
+        }
+
+        String[] p = linha.split("\t", -1);
+        if (p.length == 3 && p[0].equals(String.valueOf(OP_PUT))) {
+            associacoes.put(desescapar(p[1]), desescapar(p[2]));
+            return true;
+        }
+        if (p.length == 2 && p[0].equals(String.valueOf(OP_REMOVE))) {
+            associacoes.remove(desescapar(p[1]));
+            return true;
+        }
+        return false;
+    }
+
+    private static String crc(String registro) {
+        CRC32 crc = new CRC32();
+        crc.update(registro.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Grava o estado atual em imagens.properties (temporário + move) e zera o journal.
+     * Se cair entre os dois passos, reaplicar o journal sobre o snapshot novo dá o mesmo estado.
+     * Chamado com o lock de escrita.
+     */
+    private void compactar() {
+        Properties props = new Properties();
+        props.putAll(associacoes);
+
+        try {
+            Path tmp = propsFile.resolveSibling(propsFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Mapeamento SKU -> arquivo de imagem local (gerado pelo app)");
+            }
+            Files.move(tmp, propsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(journalFile);
+            linhasNoJournal = 0;
+            journalIniciado = false;
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao compactar imagens.properties", e);
+        }
+    }
+
+    private static String escapar(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String desescapar(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(switch (n) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> n;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------------------
+    // Mesmas regras de nome/chave do PropertiesImagemRepository
+    // ---------------------------------------------------------------------
+
+    private String skuKey(SKU sku) {
+        // Chave estável (não depende de nome de arquivo nem da grafia do produto)
+        return ChavesDeImagem.de(sku);
+    }
+
+    private String extrairExtensao(String nome) {
+        if (nome == null) return ".png";
+        int idx = nome.lastIndexOf('.');
+        if (idx < 0) return ".png";
+        String ext = nome.substring(idx).toLowerCase(Locale.ROOT).trim();
+        if (ext.equals(".jpg") || ext.equals(".jpeg") || ext.equals(".png") || ext.equals(".webp")) return ext;
+        return ".png";
+    }
+
+    private String slug(String s) {
+        if (s == null) return "imagem";
+        String x = s.replace("|", "_").trim();
+        x = x.replaceAll("[^a-zA-Z0-9_\\- ]", "_");
+        x = x.replaceAll("\\s+", "_");
+        x = x.replaceAll("_+", "_");
+        if (x.length() > 120) x = x.substring(0, 120);
+        return x;
+    }
+}
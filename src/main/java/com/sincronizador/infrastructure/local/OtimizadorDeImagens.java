@@ -0,0 +1,376 @@
+package com.sincronizador.infrastructure.local;
+
+import com.sincronizador.infrastructure.util.IndiceMd5;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera a versão "de catálogo" das imagens locais antes do upload:
+ *
+ * - reduz para no máximo maxDimensao px no maior lado (o catálogo é visto no celular);
+ * - recomprime em JPEG com a qualidade configurada (ou WebP, se houver writer ImageIO registrado);
+ * - PNG com transparência continua PNG (só reduz);
+ * - respeita a orientação EXIF (a versão gerada não carrega EXIF);
+ * - guarda o resultado em cache no disco, com nome = md5 da origem + parâmetros:
+ *   a mesma origem nunca é processada duas vezes, e mudar a config gera outra versão.
+ *
+ * Se a versão gerada não ficar menor que a origem, a própria origem é usada.
+ * Versões que nenhuma imagem da sync usa (origem trocada/apagada, config mudou) são apagadas
+ * depois de RETENCAO_ORFAOS_MS sem modificação.
+ */
+public class OtimizadorDeImagens {
+
+    public enum Formato { JPEG, WEBP }
+
+    // órfão recente fica: produto que sai do estoque por alguns dias não precisa ser reprocessado na volta
+    private static final long RETENCAO_ORFAOS_MS = TimeUnit.DAYS.toMillis(7);
+
+    private final Path pastaCache;
+    private final int maxDimensao;
+    private final float qualidade;
+    private final Formato formato;
+    private final IndiceMd5 indiceMd5;
+    private final int paralelismo;
+
+    public OtimizadorDeImagens(
+            Path pastaCache,
+            int maxDimensao,
+            float qualidade,
+            Formato formato,
+            IndiceMd5 indiceMd5,
+            int paralelismo
+    ) {
+        this.pastaCache = Objects.requireNonNull(pastaCache, "pastaCache não pode ser nula");
+        this.maxDimensao = Math.max(1, maxDimensao);
+        this.qualidade = Math.max(0.1f, Math.min(1f, qualidade));
+        this.indiceMd5 = Objects.requireNonNull(indiceMd5, "indiceMd5 não pode ser nulo");
+        this.paralelismo = Math.max(1, paralelismo);
+
+        // WebP só se algum plugin ImageIO (ex.: TwelveMonkeys) estiver no classpath
+        boolean temWebp = ImageIO.getImageWritersByFormatName("webp").hasNext();
+        this.formato = (formato == Formato.WEBP && !temWebp) ? Formato.JPEG : Objects.requireNonNull(formato);
+
+        try {
+            Files.createDirectories(pastaCache);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao criar pasta de imagens otimizadas: " + pastaCache, e);
+        }
+    }
+
+    /**
+     * Devolve o arquivo que deve ir para o Drive (versão otimizada ou a própria origem).
+     * Falha ao decodificar/recomprimir não impede a sync: cai na origem.
+     */
+    public File otimizar(File origem) {
+        Objects.requireNonNull(origem, "origem não pode ser nula");
+        return otimizar(origem, base(origem));
+    }
+
+    // nome no cache (sem extensão): md5 da origem + parâmetros
+    private String base(File origem) {
+        return indiceMd5.md5Hex(origem) + "-" + maxDimensao + "-q" + Math.round(qualidade * 100)
+                + "-" + formato.name().toLowerCase(Locale.ROOT);
+    }
+
+    private File otimizar(File origem, String base) {
+        // já processada: a origem venceu (marcador) ou existe a versão gerada
+        if (Files.exists(pastaCache.resolve(base + ".original"))) return origem;
+        for (String ext : List.of(".jpg", ".webp", ".png")) {
+            Path p = pastaCache.resolve(base + ext);
+            if (Files.isRegularFile(p)) return p.toFile();
+        }
+
+        try {
+            return gerar(origem, base);
+        } catch (Exception e) {
+            return origem;
+        }
+    }
+
+    /**
+     * Processa um conjunto de imagens em paralelo (antes da sync), para que os uploads
+     * já encontrem tudo no cache. Erros individuais são ignorados (otimizar() cai na origem).
+     * As origens são todas as imagens da sync: o que não corresponde a nenhuma delas é órfão.
+     */
+    public void prepararImagens(Collection<File> origens) {
+        if (origens == null || origens.isEmpty()) return;
+
+        AtomicInteger seq = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(paralelismo, origens.size()), r -> {
+            Thread t = new Thread(r, "sincronizador-imagens-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<String>> futuros = new ArrayList<>();
+            for (File f : origens) {
+                if (f == null) continue;
+                futuros.add(pool.submit(() -> {
+                    String base = base(f);
+                    otimizar(f, base);
+                    return base;
+                }));
+            }
+
+            Set<String> emUso = new HashSet<>();
+            for (Future<String> futuro : futuros) {
+                try {
+                    emUso.add(futuro.get());
+                } catch (ExecutionException ignored) {
+                    // otimizar() já trata os erros; aqui só esperamos terminar
+                }
+            }
+            descartarOrfaos(emUso);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void descartarOrfaos(Set<String> emUso) {
+        long limite = System.currentTimeMillis() - RETENCAO_ORFAOS_MS;
+
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(pastaCache)) {
+            for (Path p : ds) {
+                // base + ".jpg" / ".original" / ".jpg.<thread>.tmp" (temporário de uma queda)
+                String nome = p.getFileName().toString();
+                int ponto = nome.indexOf('.');
+                if (emUso.contains(ponto < 0 ? nome : nome.substring(0, ponto))) continue;
+
+                try {
+                    if (Files.isRegularFile(p) && Files.getLastModifiedTime(p).toMillis() < limite) {
+                        Files.deleteIfExists(p);
+                    }
+                } catch (IOException ignored) {
+                    // fica para a próxima sync
+                }
+            }
+        } catch (IOException ignored) {
+            // limpeza é só economia de disco: não atrapalha a sync
+        }
+    }
+
+    private File gerar(File origem, String base) throws IOException {
+        BufferedImage imagem;
+        int orientacao;
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(origem)) {
+            Iterator<ImageReader> readers = (in == null) ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Formato de imagem não suportado: " + origem.getName());
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                imagem = reader.read(0);
+                orientacao = lerOrientacaoExif(reader.getImageMetadata(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alfa = imagem.getColorModel().hasAlpha();
+        imagem = reduzir(aplicarOrientacao(imagem, orientacao), alfa);
+
+        String ext = alfa ? ".png" : (formato == Formato.WEBP ? ".webp" : ".jpg");
+        Path destino = pastaCache.resolve(base + ext);
+        Path tmp = pastaCache.resolve(base + ext + "." + Thread.currentThread().getId() + ".tmp");
+
+        try {
+            if (alfa) {
+                ImageIO.write(imagem, "png", tmp.toFile());
+            } else {
+                escreverComQualidade(imagem, formato == Formato.WEBP ? "webp" : "jpeg", tmp);
+            }
+
+            // sem ganho: marca para não tentar de novo e usa a origem (que ainda tem o EXIF)
+            if (Files.size(tmp) >= origem.length()) {
+                Files.deleteIfExists(tmp);
+                Files.write(pastaCache.resolve(base + ".original"), new byte[0]);
+                return origem;
+            }
+
+            Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return destino.toFile();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void escreverComQualidade(BufferedImage imagem, String formatoImageIO, Path destino) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatoImageIO);
+        if (!writers.hasNext()) throw new IOException("Sem writer ImageIO para " + formatoImageIO);
+
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(destino.toFile())) {
+            writer.setOutput(out);
+
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] tipos = param.getCompressionTypes();
+                if (tipos != null && tipos.length > 0 && param.getCompressionType() == null) {
+                    param.setCompressionType(tipos[0]);
+                }
+                param.setCompressionQuality(qualidade);
+            }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+
+            writer.write(null, new IIOImage(imagem, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Reduz em passos de no máximo 1/2 (qualidade próxima de área/bicúbico sem custo alto)
+     * e normaliza o tipo de pixel (JPEG não aceita alfa).
+     */
+    private BufferedImage reduzir(BufferedImage imagem, boolean alfa) {
+        int w = imagem.getWidth();
+        int h = imagem.getHeight();
+        double escala = Math.min(1.0, (double) maxDimensao / Math.max(w, h));
+
+        int alvoW = Math.max(1, (int) Math.round(w * escala));
+        int alvoH = Math.max(1, (int) Math.round(h * escala));
+        int tipo = alfa ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage atual = imagem;
+        do {
+            w = Math.max(alvoW, w / 2);
+            h = Math.max(alvoH, h / 2);
+            if (escala == 1.0) {
+                w = alvoW;
+                h = alvoH;
+            }
+            atual = redesenhar(atual, w, h, tipo, alfa);
+        } while (w != alvoW || h != alvoH);
+
+        return atual;
+    }
+
+    private static BufferedImage redesenhar(BufferedImage origem, int w, int h, int tipo, boolean alfa) {
+        BufferedImage destino = new BufferedImage(w, h, tipo);
+        Graphics2D g = destino.createGraphics();
+        try {
+            if (!alfa) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, w, h);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(origem, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    // ---------------------------------------------------------------------
+    // EXIF: só a tag Orientation (0x0112) do IFD0
+    // ---------------------------------------------------------------------
+
+    private static int lerOrientacaoExif(IIOMetadata metadata) {
+        if (metadata == null) return 1;
+        try {
+            Node raiz = metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+            return procurarApp1(raiz);
+        } catch (Exception e) {
+            return 1; // não é JPEG ou metadata sem EXIF
+        }
+    }
+
+    private static int procurarApp1(Node no) {
+        if (no instanceof IIOMetadataNode m && "unknown".equals(m.getNodeName())
+                && "225".equals(m.getAttribute("MarkerTag")) && m.getUserObject() instanceof byte[] dados) {
+            int o = orientacaoDoApp1(dados);
+            if (o > 0) return o;
+        }
+        for (Node filho = no.getFirstChild(); filho != null; filho = filho.getNextSibling()) {
+            int o = procurarApp1(filho);
+            if (o > 1) return o;
+        }
+        return 1;
+    }
+
+    private static int orientacaoDoApp1(byte[] d) {
+        // "Exif\0\0" + cabeçalho TIFF
+        if (d.length < 14 || d[0] != 'E' || d[1] != 'x' || d[2] != 'i' || d[3] != 'f') return -1;
+        int tiff = 6;
+        boolean le = d[tiff] == 'I';
+
+        int ifd = tiff + ler32(d, tiff + 4, le);
+        if (ifd + 2 > d.length) return -1;
+
+        int entradas = ler16(d, ifd, le);
+        for (int i = 0; i < entradas; i++) {
+            int e = ifd + 2 + i * 12;
+            if (e + 12 > d.length) break;
+            if (ler16(d, e, le) == 0x0112) return ler16(d, e + 8, le);
+        }
+        return -1;
+    }
+
+    private static int ler16(byte[] d, int i, boolean le) {
+        int a = d[i] & 0xFF, b = d[i + 1] & 0xFF;
+        return le ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int ler32(byte[] d, int i, boolean le) {
+        return le
+                ? (ler16(d, i + 2, true) << 16) | ler16(d, i, true)
+                : (ler16(d, i, false) << 16) | ler16(d, i + 2, false);
+    }
+
+    private static BufferedImage aplicarOrientacao(BufferedImage img, int orientacao) {
+        if (orientacao <= 1 || orientacao > 8) return img;
+
+        int w = img.getWidth();
+        int h = img.getHeight();
+        boolean troca = orientacao >= 5;
+
+        AffineTransform t = new AffineTransform();
+        switch (orientacao) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.translate(h, w); t.rotate(Math.PI / 2); t.scale(-1, 1); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+
+        int tipo = img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage destino = new BufferedImage(troca ? h : w, troca ? w : h, tipo);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.drawImage(img, t, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+}
@@ -5,7 +5,9 @@ import com.sincronizador.domain.model.SKU;
 
 import java.io.*;
 import java.nio.file.*;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -48,6 +50,17 @@ public class PropertiesImagemRepository implements ImagemRepository {
             // Se estiver vazio/novo, ok. Se der erro real, sobe.
             throw new RuntimeException("Falha ao carregar imagens.properties", e);
         }
+
+        // chaves gravadas com a normalização antiga (só trim + maiúscula) passam para a canônica
+        Map<String, String> atuais = new HashMap<>();
+        for (String chave : props.stringPropertyNames()) atuais.put(chave, props.getProperty(chave));
+
+        Map<String, String> migradas = ChavesDeImagem.migrar(atuais);
+        if (!migradas.equals(atuais)) {
+            props.clear();
+            props.putAll(migradas);
+            persistir();
+        }
     }
 
     private synchronized void persistir() {
@@ -127,15 +140,8 @@ public class PropertiesImagemRepository implements ImagemRepository {
     }
 
     private String skuKey(SKU sku) {
-        // Chave estável (não depende de nome de arquivo)
-        String clube = safeUpper(sku.getClube());
-        String modelo = safeUpper(sku.getModelo());
-        String tipo = (sku.getTipo() == null) ? "" : sku.getTipo().name().toUpperCase(Locale.ROOT);
-        return clube + "|" + modelo + "|" + tipo;
-    }
-
-    private String safeUpper(String s) {
-        return (s == null) ? "" : s.trim().toUpperCase(Locale.ROOT);
+        // Chave estável (não depende de nome de arquivo nem da grafia do produto)
+        return ChavesDeImagem.de(sku);
     }
 
     private String extrairExtensao(String nome) {
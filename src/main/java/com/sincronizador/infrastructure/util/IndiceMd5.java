@@ -0,0 +1,173 @@
+package com.sincronizador.infrastructure.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice persistente de MD5 das imagens locais.
+ *
+ * Chave: caminho absoluto do arquivo. Valor: tamanho + data de modificação + md5.
+ * Se tamanho e mtime batem com o que está no índice, o md5 guardado é devolvido
+ * sem abrir o arquivo; senão o arquivo é lido (Md5Utils) e o índice atualizado.
+ *
+ * Gravado em imagens.md5.properties (ao lado de imagens.properties).
+ * Entradas de arquivos que não existem mais saem do índice no salvar() (ex.: ao fechar o app).
+ */
+public class IndiceMd5 {
+
+    // não reescreve o arquivo a cada hash novo (primeira sync com milhares de imagens)
+    private static final int SALVAR_A_CADA = 200;
+
+    private final Path arquivo;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private int alteracoesPendentes;
+
+    /**
+     * @param arquivo onde persistir; null = índice só em memória
+     */
+    public IndiceMd5(Path arquivo) {
+        this.arquivo = arquivo;
+        carregar();
+    }
+
+    public static IndiceMd5 emMemoria() {
+        return new IndiceMd5(null);
+    }
+
+    public String md5Hex(File imagem) {
+        Objects.requireNonNull(imagem, "imagem não pode ser nula");
+
+        Path path = imagem.toPath().toAbsolutePath().normalize();
+        String chave = path.toString();
+
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao ler atributos do arquivo: " + imagem.getName(), e);
+        }
+        long tamanho = attrs.size();
+        long modificadoEm = attrs.lastModifiedTime().toMillis();
+
+        Entrada atual = entradas.get(chave);
+        if (atual != null && atual.tamanho == tamanho && atual.modificadoEm == modificadoEm) {
+            return atual.md5;
+        }
+
+        String md5 = Md5Utils.md5Hex(imagem);
+        entradas.put(chave, new Entrada(tamanho, modificadoEm, md5));
+        registrarAlteracao();
+        return md5;
+    }
+
+    private void registrarAlteracao() {
+        boolean salvar;
+        synchronized (this) {
+            // múltiplo (e não >=): se a gravação falhar, só tenta de novo depois de mais SALVAR_A_CADA
+            salvar = ++alteracoesPendentes % SALVAR_A_CADA == 0;
+        }
+        if (!salvar) return;
+
+        // gravação periódica no meio da sync: sem varrer o disco atrás de arquivos apagados.
+        // Falha aqui não pode derrubar o SKU que calculou o hash: o índice é só cache e o salvar() final tenta de novo
+        try {
+            gravar(false);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Descarta as entradas de arquivos que não existem mais e grava o índice
+     * se algo mudou desde a última gravação.
+     */
+    public void salvar() {
+        try {
+            gravar(true);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao salvar índice de MD5: " + arquivo, e);
+        }
+    }
+
+    private synchronized void gravar(boolean descartarAusentes) throws IOException {
+        if (arquivo == null) return;
+        if (descartarAusentes) alteracoesPendentes += descartarAusentes();
+        if (alteracoesPendentes == 0) return;
+
+        Properties props = new Properties();
+        for (Map.Entry<String, Entrada> e : entradas.entrySet()) {
+            Entrada v = e.getValue();
+            props.setProperty(e.getKey(), v.tamanho + "|" + v.modificadoEm + "|" + v.md5);
+        }
+
+        Files.createDirectories(arquivo.toAbsolutePath().getParent());
+
+        Path tmp = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, "Cache de MD5 das imagens locais: caminho = tamanho|mtime|md5 (gerado pelo app)");
+        }
+        Files.move(tmp, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        alteracoesPendentes = 0;
+    }
+
+    // uma consulta ao disco por entrada; chamado com o monitor
+    private int descartarAusentes() {
+        int removidas = 0;
+        for (Map.Entry<String, Entrada> e : entradas.entrySet()) {
+            if (!existe(e.getKey()) && entradas.remove(e.getKey(), e.getValue())) {
+                removidas++;
+            }
+        }
+        return removidas;
+    }
+
+    private static boolean existe(String caminho) {
+        try {
+            return Files.exists(Paths.get(caminho));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    private void carregar() {
+        if (arquivo == null || !Files.isRegularFile(arquivo)) return;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            props.load(in);
+        } catch (IOException e) {
+            // índice é só cache: ilegível = começa vazio
+            return;
+        }
+
+        for (String chave : props.stringPropertyNames()) {
+            String[] partes = props.getProperty(chave, "").split("\\|");
+            if (partes.length != 3) continue;
+            try {
+                entradas.put(chave, new Entrada(Long.parseLong(partes[0]), Long.parseLong(partes[1]), partes[2]));
+            } catch (NumberFormatException ignored) {
+                // linha corrompida: o arquivo será re-hasheado quando for pedido
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final long tamanho;
+        private final long modificadoEm;
+        private final String md5;
+
+        private Entrada(long tamanho, long modificadoEm, String md5) {
+            this.tamanho = tamanho;
+            this.modificadoEm = modificadoEm;
+            this.md5 = md5;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.sincronizador.infrastructure.util;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 
 public final class Md5Utils {
 
+    // buffer direto grande: o FileChannel lê sem cópia intermediária no heap.
+    // (mmap foi descartado: no Windows o arquivo mapeado fica travado até o GC, e as imagens são substituídas)
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TAMANHO_BUFFER));
+
     private Md5Utils() {}
 
     public static String md5Hex(File file) {
-        try (FileInputStream fis = new FileInputStream(file)) {
+        try (FileChannel canal = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
             MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] buffer = new byte[8192];
-            int read;
-            while ((read = fis.read(buffer)) != -1) {
-                md.update(buffer, 0, read);
+            ByteBuffer buffer = BUFFER.get();
+
+            buffer.clear();
+            while (canal.read(buffer) != -1) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
             }
             return toHex(md.digest());
         } catch (Exception e) {
@@ -22,9 +34,14 @@ public final class Md5Utils {
         }
     }
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     private static String toHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) sb.append(String.format("%02x", b));
-        return sb.toString();
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
     }
 }
@@ -0,0 +1,324 @@
+package com.sincronizador.interfaces.cli;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.gson.GsonFactory;
+import com.sincronizador.application.dto.ResultadoSincronizacaoDTO;
+import com.sincronizador.application.dto.TemposDeLeitura;
+import com.sincronizador.config.AppConfig;
+import com.sincronizador.config.Componentes;
+import com.sincronizador.domain.model.AcaoDeSincronizacao;
+import com.sincronizador.domain.model.PlanoDeSincronizacao;
+import com.sincronizador.infrastructure.drive.DriveUploadResumivel;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sincronização sem janela (cron / serviço agendado).
+ *
+ * Uso:
+ *   java -cp ... com.sincronizador.interfaces.cli.SincronizadorCli [--dry-run | --aplicar] [--intervalo-minutos=N]
+ *
+ * - --dry-run (padrão): só planeja (ERP x listagem do Drive x imagens locais) e lista as ações,
+ *   sem escrever nem consultar arquivo por arquivo no Drive; localmente não faz a preparação em lote
+ *   das imagens nem apaga as otimizadas órfãs (só o cache de md5/versão otimizada das imagens
+ *   conferidas é atualizado, como numa sync normal);
+ * - --aplicar: executa a sincronização de verdade;
+ * - --intervalo-minutos=N: repete a cada N minutos (contados do fim da anterior, nunca sobrepõe);
+ *   sem o argumento vale cli.intervaloMinutos do app.properties (0 = roda uma vez e sai).
+ *
+ * Cada execução escreve UMA linha JSON no stdout (resultado ou falha); mensagens humanas vão pro stderr.
+ * O Drive usa só o token já salvo em tokens/ (autorizar uma vez pelo app com janela).
+ *
+ * Código de saída (execução única): 0 = ok, 1 = sync com erros/falhou, 2 = argumentos/inicialização.
+ */
+public final class SincronizadorCli {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final Componentes componentes;
+    private final boolean simulacao;
+    private final PrintStream saida;
+
+    SincronizadorCli(Componentes componentes, boolean simulacao, PrintStream saida) {
+        this.componentes = componentes;
+        this.simulacao = simulacao;
+        this.saida = saida;
+    }
+
+    public static void main(String[] args) {
+        Boolean aplicar = null;
+        Integer intervaloMinutos = null;
+
+        for (String arg : args) {
+            if (arg.equals("--dry-run")) {
+                aplicar = setUmaVez(aplicar, false);
+            } else if (arg.equals("--aplicar")) {
+                aplicar = setUmaVez(aplicar, true);
+            } else if (arg.startsWith("--intervalo-minutos=")) {
+                try {
+                    intervaloMinutos = Integer.parseInt(arg.substring("--intervalo-minutos=".length()).trim());
+                } catch (NumberFormatException e) {
+                    sair("Intervalo inválido: " + arg);
+                }
+                if (intervaloMinutos < 0) sair("Intervalo não pode ser negativo: " + arg);
+            } else {
+                sair("Argumento desconhecido: " + arg
+                        + "\nUso: [--dry-run | --aplicar] [--intervalo-minutos=N]"
+                        + "\n  --dry-run só planeja: nada vai ao Drive e o cache de imagens otimizadas não é limpo");
+            }
+        }
+
+        boolean simulacao = (aplicar == null) || !aplicar;
+
+        Componentes componentes;
+        AppConfig config;
+        try {
+            config = AppConfig.carregar();
+            componentes = Componentes.montar(config, false);
+        } catch (RuntimeException e) {
+            System.err.println("Falha ao iniciar: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        int intervalo = (intervaloMinutos != null) ? intervaloMinutos : config.getCliIntervaloMinutos();
+
+        var cli = new SincronizadorCli(componentes, simulacao, System.out);
+
+        if (intervalo == 0) {
+            boolean ok;
+            try {
+                ok = cli.executarUmaVez();
+            } finally {
+                componentes.close();
+            }
+            System.exit(ok ? 0 : 1);
+            return;
+        }
+
+        cli.agendar(intervalo);
+    }
+
+    private static Boolean setUmaVez(Boolean atual, boolean valor) {
+        if (atual != null && atual != valor) sair("Use apenas um de --dry-run / --aplicar.");
+        return valor;
+    }
+
+    private static void sair(String msg) {
+        System.err.println(msg);
+        System.exit(2);
+    }
+
+    /**
+     * Repete a sincronização a cada intervaloMinutos (atraso fixo a partir do fim da anterior)
+     * até o processo ser encerrado (Ctrl+C / SIGTERM).
+     */
+    private void agendar(int intervaloMinutos) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sincronizador-agendador");
+            t.setDaemon(true);
+            return t;
+        });
+        CountDownLatch encerrado = new CountDownLatch(1);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            agendador.shutdownNow();
+            try {
+                agendador.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            componentes.close();
+            encerrado.countDown();
+        }, "sincronizador-encerramento"));
+
+        System.err.println("Sincronizando a cada " + intervaloMinutos + " min"
+                + (simulacao ? " (simulação: nada é alterado no Drive)" : "") + ".");
+
+        // uma exceção aqui não pode cancelar as próximas execuções
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                executarUmaVez();
+            } catch (Throwable t) {
+                System.err.println("Erro inesperado na sincronização agendada: " + t);
+            }
+        }, 0, intervaloMinutos, TimeUnit.MINUTES);
+
+        try {
+            encerrado.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true se a sincronização terminou sem erros
+     */
+    boolean executarUmaVez() {
+        Instant inicio = Instant.now();
+        long t0 = System.nanoTime();
+
+        ResultadoSincronizacaoDTO resultado = null;
+        PlanoDeSincronizacao plano = null;
+        RuntimeException falha = null;
+        try {
+            if (simulacao) plano = componentes.getSincronizar().simular(null);
+            else resultado = componentes.getSincronizar().executar();
+        } catch (RuntimeException e) {
+            falha = e;
+        }
+
+        boolean ok = falha == null
+                && (plano == null || plano.getErros().isEmpty())
+                && (resultado == null || !resultado.temErros());
+
+        long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        escreverJson(inicio, duracaoMs, ok, resultado, plano, falha);
+
+        return ok;
+    }
+
+    private void escreverJson(
+            Instant inicio,
+            long duracaoMs,
+            boolean ok,
+            ResultadoSincronizacaoDTO r,
+            PlanoDeSincronizacao plano,
+            RuntimeException falha
+    ) {
+        try {
+            Writer writer = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+            JsonGenerator json = JSON_FACTORY.createJsonGenerator(writer);
+
+            json.writeStartObject();
+            json.writeFieldName("inicio");
+            json.writeString(inicio.toString());
+            json.writeFieldName("duracaoMs");
+            json.writeNumber(duracaoMs);
+            json.writeFieldName("modo");
+            json.writeString(simulacao ? "simulacao" : "aplicar");
+            json.writeFieldName("ok");
+            json.writeBoolean(ok);
+
+            if (falha != null) {
+                json.writeFieldName("falha");
+                json.writeString(String.valueOf(falha.getMessage()));
+            } else if (plano != null) {
+                escreverPlano(json, plano);
+            } else {
+                json.writeFieldName("criados");
+                json.writeNumber(r.getCriados());
+                json.writeFieldName("atualizados");
+                json.writeNumber(r.getAtualizados());
+                json.writeFieldName("removidos");
+                json.writeNumber(r.getRemovidos());
+                json.writeFieldName("pendentesSemImagem");
+                json.writeNumber(r.getPendentesCriacaoSemimagem());
+                json.writeFieldName("erros");
+                json.writeStartArray();
+                for (String erro : r.getErros()) json.writeString(erro);
+                json.writeEndArray();
+            }
+
+            TemposDeLeitura tempos = componentes.getSincronizar().getUltimaLeitura();
+            if (falha == null && tempos != null) {
+                json.writeFieldName("leitura");
+                json.writeStartObject();
+                json.writeFieldName("erpMs");
+                json.writeNumber(tempos.getEstoqueMs());
+                json.writeFieldName("catalogoMs");
+                json.writeNumber(tempos.getCatalogoMs());
+                json.writeFieldName("totalMs");
+                json.writeNumber(tempos.getTotalMs());
+                json.writeEndObject();
+            }
+
+            json.writeFieldName("metricasDrive");
+            json.writeString(componentes.getMetricasDrive());
+            escreverUploads(json, componentes.getUltimosUploads());
+            json.writeEndObject();
+            json.flush();
+
+            writer.write(System.lineSeparator());
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao escrever resultado em JSON", e);
+        }
+    }
+
+    private static void escreverUploads(JsonGenerator json, List<DriveUploadResumivel.MetricaUpload> uploads)
+            throws IOException {
+        json.writeFieldName("uploads");
+        json.writeStartArray();
+        for (DriveUploadResumivel.MetricaUpload u : uploads) {
+            json.writeStartObject();
+            json.writeFieldName("arquivo");
+            json.writeString(u.getArquivo());
+            json.writeFieldName("bytes");
+            json.writeNumber(u.getBytes());
+            json.writeFieldName("duracaoMs");
+            json.writeNumber(u.getDuracaoMs());
+            json.writeFieldName("kbPorSegundo");
+            json.writeNumber(Math.round(u.getKbPorSegundo()));
+            json.writeFieldName("retomadas");
+            json.writeNumber(u.getRetomadas());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static void escreverPlano(JsonGenerator json, PlanoDeSincronizacao plano) throws IOException {
+        json.writeFieldName("resumo");
+        json.writeStartObject();
+        for (Map.Entry<AcaoDeSincronizacao.Tipo, Integer> e : plano.getResumo().entrySet()) {
+            json.writeFieldName(e.getKey().name());
+            json.writeNumber(e.getValue());
+        }
+        json.writeEndObject();
+
+        json.writeFieldName("bytesEstimados");
+        json.writeNumber(plano.getBytesEstimados());
+
+        json.writeFieldName("acoes");
+        json.writeStartArray();
+        for (AcaoDeSincronizacao a : plano.getAcoes()) {
+            if (!a.alteraCatalogo()) continue;
+            json.writeStartObject();
+            json.writeFieldName("tipo");
+            json.writeString(a.getTipo().name());
+            json.writeFieldName("sku");
+            json.writeString(String.valueOf(a.getSku()));
+            if (a.getIdExterno() != null) {
+                json.writeFieldName("idExterno");
+                json.writeString(a.getIdExterno());
+            }
+            if (a.getNovoNome() != null) {
+                json.writeFieldName("novoNome");
+                json.writeString(a.getNovoNome());
+            }
+            json.writeFieldName("motivo");
+            json.writeString(String.valueOf(a.getMotivo()));
+            json.writeFieldName("bytesEstimados");
+            json.writeNumber(a.getBytesEstimados());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeFieldName("erros");
+        json.writeStartArray();
+        for (String erro : plano.getErros()) json.writeString(erro);
+        json.writeEndArray();
+    }
+}
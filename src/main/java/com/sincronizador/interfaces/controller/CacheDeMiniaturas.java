@@ -0,0 +1,137 @@
+package com.sincronizador.interfaces.controller;
+
+import com.sincronizador.domain.model.SKU;
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache LRU das miniaturas do painel de detalhe.
+ *
+ * - chave = SKU + impressão digital do arquivo (caminho, tamanho, data de modificação):
+ *   imagem trocada no disco vira outra chave, a antiga sai por LRU;
+ * - a imagem já é decodificada no tamanho do painel (não o JPEG cheio) e em segundo plano
+ *   (loader assíncrono do JavaFX), então a seleção não trava esperando o decode;
+ * - orçamento de memória em bytes (largura x altura x 4 de cada miniatura).
+ *
+ * Uso só na thread do JavaFX (sem sincronização).
+ */
+public class CacheDeMiniaturas {
+
+    private final double largura;
+    private final double altura;
+    private final long orcamentoBytes;
+
+    private final LinkedHashMap<Chave, Image> imagens = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesEmUso = 0;
+
+    public CacheDeMiniaturas(double largura, double altura, long orcamentoBytes) {
+        if (largura <= 0 || altura <= 0) throw new IllegalArgumentException("dimensões inválidas");
+        if (orcamentoBytes <= 0) throw new IllegalArgumentException("orcamentoBytes deve ser > 0");
+        this.largura = largura;
+        this.altura = altura;
+        this.orcamentoBytes = orcamentoBytes;
+    }
+
+    /**
+     * Miniatura do arquivo (pode ainda estar carregando: o ImageView mostra quando terminar).
+     */
+    public Image obter(SKU sku, File arquivo) {
+        Objects.requireNonNull(sku, "sku não pode ser nulo");
+        Objects.requireNonNull(arquivo, "arquivo não pode ser nulo");
+
+        Chave chave = new Chave(sku, arquivo);
+        Image img = imagens.get(chave);
+
+        if (img != null && img.isError()) {
+            // falhou no decode (arquivo em cópia, corrompido...): tenta de novo
+            remover(chave);
+            img = null;
+        }
+
+        if (img == null) {
+            img = new Image(arquivo.toURI().toString(), largura, altura, true, true, true);
+            imagens.put(chave, img);
+            bytesEmUso += bytesEstimados();
+            despejar();
+        }
+        return img;
+    }
+
+    /**
+     * Esquenta o cache (linhas vizinhas da seleção). Decode acontece em segundo plano.
+     */
+    public void preCarregar(SKU sku, File arquivo) {
+        if (sku == null || arquivo == null) return;
+        obter(sku, arquivo);
+    }
+
+    /**
+     * Esvazia o cache e cancela os decodes ainda em andamento (ex.: ao fechar a janela).
+     */
+    public void limpar() {
+        for (Image img : imagens.values()) {
+            if (img.getProgress() < 1.0) img.cancel();
+        }
+        imagens.clear();
+        bytesEmUso = 0;
+    }
+
+    private void remover(Chave chave) {
+        Image img = imagens.remove(chave);
+        if (img != null) {
+            if (img.getProgress() < 1.0) img.cancel();
+            bytesEmUso -= bytesEstimados();
+        }
+    }
+
+    private void despejar() {
+        // mantém pelo menos a mais recente, mesmo que sozinha estoure o orçamento
+        Iterator<Map.Entry<Chave, Image>> it = imagens.entrySet().iterator();
+        while (bytesEmUso > orcamentoBytes && imagens.size() > 1 && it.hasNext()) {
+            Image img = it.next().getValue();
+            if (img.getProgress() < 1.0) img.cancel();
+            it.remove();
+            bytesEmUso -= bytesEstimados();
+        }
+    }
+
+    // preserveRatio: a miniatura cabe na caixa largura x altura, então isso é o teto (ARGB)
+    private long bytesEstimados() {
+        return (long) Math.ceil(largura) * (long) Math.ceil(altura) * 4L;
+    }
+
+    private static final class Chave {
+        private final SKU sku;
+        private final String caminho;
+        private final long tamanho;
+        private final long modificadoEm;
+
+        Chave(SKU sku, File arquivo) {
+            this.sku = sku;
+            this.caminho = arquivo.getAbsolutePath();
+            this.tamanho = arquivo.length();
+            this.modificadoEm = arquivo.lastModified();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave c = (Chave) o;
+            return tamanho == c.tamanho
+                    && modificadoEm == c.modificadoEm
+                    && sku.equals(c.sku)
+                    && caminho.equals(c.caminho);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sku, caminho, tamanho, modificadoEm);
+        }
+    }
+}
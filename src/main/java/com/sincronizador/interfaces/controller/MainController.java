@@ -8,6 +8,7 @@ import com.sincronizador.application.usecase.AssociarImagemAoCatalogoUseCase;
 import com.sincronizador.application.usecase.GerarStatusDoCatalogoUseCase;
 import com.sincronizador.application.usecase.SincronizarCatalogoUseCase;
 import com.sincronizador.domain.model.SKU;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
@@ -21,8 +22,13 @@ import javafx.stage.Window;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class MainController {
@@ -77,8 +83,24 @@ public class MainController {
     // necessário para buscar imagem local do SKU ao selecionar
     private ImagemRepository imagemRepository;
 
+    // resumo das métricas de throttling do Drive (opcional, exibido ao fim da sync)
+    private Supplier<String> metricasDrive;
+
     private boolean busy = false;
 
+    // carga da tabela em andamento (só uma por vez; a mais nova cancela a anterior)
+    private Task<Void> cargaTabela;
+
+    private static final int LINHAS_POR_BLOCO = 200;
+
+    // ✅ pool limitado + fila exclusiva para a sync (no lugar de uma Thread por tarefa)
+    private final ServicoDeTarefasUi tarefas = new ServicoDeTarefasUi();
+
+    // miniaturas do painel de detalhe (LRU, já no tamanho do preview)
+    private static final long ORCAMENTO_MINIATURAS_BYTES = 64L * 1024 * 1024;
+    private static final int LINHAS_PRE_CARREGADAS = 2;
+    private CacheDeMiniaturas miniaturas;
+
     @FXML
     public void initialize() {
 
@@ -132,6 +154,12 @@ public class MainController {
         // Painel começa "vazio"
         limparPainelDetalhe();
 
+        if (imgPreview != null) {
+            double largura = imgPreview.getFitWidth() > 0 ? imgPreview.getFitWidth() : 520;
+            double altura = imgPreview.getFitHeight() > 0 ? imgPreview.getFitHeight() : 420;
+            miniaturas = new CacheDeMiniaturas(largura, altura, ORCAMENTO_MINIATURAS_BYTES);
+        }
+
         // Listener de seleção -> atualiza painel
         if (tabelaProdutos != null) {
             tabelaProdutos.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> {
@@ -162,17 +190,107 @@ public class MainController {
         }
     }
 
+    public void setMetricasDrive(Supplier<String> metricasDrive) {
+        this.metricasDrive = metricasDrive;
+    }
+
+    /**
+     * Chamado ao fechar a janela: cancela carga da tabela, sync e demais tarefas em andamento
+     * (e os decodes de miniatura que ainda estiverem rodando).
+     */
+    public void encerrar() {
+        tarefas.encerrar();
+        if (miniaturas != null) miniaturas.limpar();
+    }
+
+    /**
+     * ✅ Carga assíncrona: ERP + Drive são lidos fora da thread do JavaFX e as linhas
+     * entram na tabela em blocos, conforme ficam prontas.
+     * As linhas antigas continuam visíveis até chegar o primeiro bloco novo.
+     */
     private void carregarTabela() {
         if (gerarStatusUseCase == null) return;
 
-        ObservableList<ProdutoCatalogoStatusDTO> dados =
-                FXCollections.observableArrayList(gerarStatusUseCase.executar());
+        if (cargaTabela != null) cargaTabela.cancel();
+
+        ProdutoCatalogoStatusDTO selAnterior = tabelaProdutos.getSelectionModel().getSelectedItem();
+        SKU skuSelecionado = (selAnterior == null) ? null : selAnterior.getSku();
+
+        ObservableList<ProdutoCatalogoStatusDTO> dados = FXCollections.observableArrayList();
+
+        Task<Void> task = new Task<>() {
+            private boolean primeiroBloco = true;
+
+            @Override
+            protected Void call() {
+                gerarStatusUseCase.executar(bloco -> {
+                    if (isCancelled()) throw new CancellationException();
+
+                    List<ProdutoCatalogoStatusDTO> copia = new ArrayList<>(bloco);
+                    Platform.runLater(() -> {
+                        if (cargaTabela != this) return; // carga velha: descarta
+
+                        if (primeiroBloco) {
+                            primeiroBloco = false;
+                            tabelaProdutos.setItems(dados);
+                        }
+                        dados.addAll(copia);
+                        reselecionar(copia, skuSelecionado);
+                    });
+                }, LINHAS_POR_BLOCO);
+                return null;
+            }
+        };
 
-        tabelaProdutos.setItems(dados);
+        cargaTabela = task;
+        tabelaProdutos.setPlaceholder(new ProgressIndicator());
         atualizarEstadoBotoes();
 
-        ProdutoCatalogoStatusDTO sel = tabelaProdutos.getSelectionModel().getSelectedItem();
-        atualizarPainelDetalhe(sel);
+        task.setOnSucceeded(e -> {
+            if (cargaTabela != task) return;
+            // nenhum bloco (catálogo vazio): troca para a lista vazia
+            if (tabelaProdutos.getItems() != dados && dados.isEmpty()) tabelaProdutos.setItems(dados);
+            finalizarCargaTabela();
+
+            // tempo de cada fonte na última carga (ERP e Drive são lidos em paralelo)
+            var tempos = gerarStatusUseCase.getUltimaLeitura();
+            if (tempos != null) tabelaProdutos.setTooltip(new Tooltip("Última leitura: " + tempos));
+        });
+
+        task.setOnFailed(e -> {
+            if (cargaTabela != task) return;
+            finalizarCargaTabela();
+            Throwable ex = task.getException();
+            alertErro("Erro ao carregar produtos", ex == null ? "Erro desconhecido." : ex.getMessage());
+        });
+
+        try {
+            tarefas.executar("carga-tabela", task);
+        } catch (RejectedExecutionException e) {
+            finalizarCargaTabela();
+            alertErro("Erro ao carregar produtos", "Há tarefas demais em andamento. Tente novamente.");
+        }
+    }
+
+    private void finalizarCargaTabela() {
+        cargaTabela = null;
+        tabelaProdutos.setPlaceholder(new Label("Nenhum produto"));
+        if (!busy) atualizarEstadoBotoes();
+        atualizarPainelDetalhe(tabelaProdutos.getSelectionModel().getSelectedItem());
+    }
+
+    private void reselecionar(List<ProdutoCatalogoStatusDTO> bloco, SKU sku) {
+        if (sku == null || tabelaProdutos.getSelectionModel().getSelectedItem() != null) return;
+        for (ProdutoCatalogoStatusDTO dto : bloco) {
+            if (sku.equals(dto.getSku())) {
+                tabelaProdutos.getSelectionModel().select(dto);
+                return;
+            }
+        }
+    }
+
+    private boolean carregandoTabela() {
+        return cargaTabela != null;
     }
 
     private void atualizarEstadoBotoes() {
@@ -188,6 +306,9 @@ public class MainController {
 
         if (btnAssociarImagem != null) btnAssociarImagem.setDisable(!temSelecao);
         if (btnTrocarImagem != null) btnTrocarImagem.setDisable(!okOuOutro);
+
+        // pendências de imagem são calculadas em cima da tabela: só sincroniza com ela completa
+        if (btnSincronizarCatalogo != null) btnSincronizarCatalogo.setDisable(carregandoTabela());
     }
 
     private void setBusy(boolean busy) {
@@ -200,7 +321,11 @@ public class MainController {
         if (tabelaProdutos != null) tabelaProdutos.setDisable(busy);
     }
 
-    private <T> void runAsync(String tituloErro, Task<T> task, Consumer<T> onSuccess) {
+    private <T> void runAsync(String tipo, String tituloErro, Task<T> task, Consumer<T> onSuccess) {
+        runAsync(tipo, false, tituloErro, task, onSuccess);
+    }
+
+    private <T> void runAsync(String tipo, boolean exclusiva, String tituloErro, Task<T> task, Consumer<T> onSuccess) {
         task.setOnSucceeded(e -> {
             try {
                 if (onSuccess != null) onSuccess.accept(task.getValue());
@@ -222,9 +347,23 @@ public class MainController {
             }
         });
 
-        Thread t = new Thread(task);
-        t.setDaemon(true);
-        t.start();
+        task.setOnCancelled(e -> {
+            ocultarProgresso();
+            setBusy(false);
+            atualizarEstadoBotoes();
+        });
+
+        try {
+            if (exclusiva) tarefas.executarExclusivo(tipo, task);
+            else tarefas.executar(tipo, task);
+        } catch (RejectedExecutionException e) {
+            ocultarProgresso();
+            setBusy(false);
+            atualizarEstadoBotoes();
+            alertErro(tituloErro, exclusiva
+                    ? "Já existe uma sincronização em andamento."
+                    : "Há tarefas demais em andamento. Tente novamente.");
+        }
     }
 
     // =========================================================
@@ -266,15 +405,21 @@ public class MainController {
                     .collect(Collectors.toList());
         }
 
+        // ✅ uma consulta em lote para a tabela inteira
+        Map<SKU, File> comImagem;
+        try {
+            comImagem = imagemRepository.obterImagens(tabelaProdutos.getItems().stream()
+                    .map(ProdutoCatalogoStatusDTO::getSku)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            // se deu erro ao ler, trata tudo como pendente (segurança)
+            comImagem = Map.of();
+        }
+
+        Map<SKU, File> resolvidas = comImagem;
         return tabelaProdutos.getItems().stream()
-                .filter(p -> {
-                    try {
-                        return imagemRepository.obterImagem(p.getSku()).isEmpty();
-                    } catch (Exception e) {
-                        // se deu erro ao ler, trata como pendente (segurança)
-                        return true;
-                    }
-                })
+                .filter(p -> p.getSku() == null || !resolvidas.containsKey(p.getSku()))
                 .collect(Collectors.toList());
     }
 
@@ -321,7 +466,7 @@ public class MainController {
             }
         };
 
-        runAsync("Erro ao associar imagem", task, ignored -> {
+        runAsync("associar-imagem", "Erro ao associar imagem", task, ignored -> {
             carregarTabela();
 
             pendentes.remove(0);
@@ -363,7 +508,7 @@ public class MainController {
 
         mostrarProgresso(task);
 
-        runAsync("Erro ao sincronizar catálogo", task, r -> {
+        runAsync("sincronizacao", true, "Erro ao sincronizar catálogo", task, r -> {
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
             alert.setTitle("Sincronizador de Catálogo");
             alert.setHeaderText("Sincronização concluída.");
@@ -374,6 +519,21 @@ public class MainController {
                             "Removidos: " + r.getRemovidos() + "\n" +
                             "Pendentes (sem imagem local): " + r.getPendentesCriacaoSemimagem();
 
+            if (metricasDrive != null) {
+                try {
+                    msg += "\n\nDrive: " + metricasDrive.get();
+                } catch (Exception ignored) {
+                    // métricas nunca podem esconder o resultado da sync
+                }
+            }
+
+            if (r.getTemposDeLeitura().isPresent()) {
+                msg += "\n\nLeitura: " + r.getTemposDeLeitura().get();
+            }
+
+            String resumoTarefas = tarefas.getResumo();
+            if (!resumoTarefas.isEmpty()) msg += "\n\nTarefas:\n" + resumoTarefas;
+
             if (r.temErros()) {
                 msg += "\n\nErros (primeiros):\n" +
                         r.getErros().stream().limit(6).collect(Collectors.joining("\n"));
@@ -418,7 +578,7 @@ public class MainController {
             }
         };
 
-        runAsync("Erro ao associar imagem", task, ignored -> {
+        runAsync("associar-imagem", "Erro ao associar imagem", task, ignored -> {
             Alert ok = new Alert(Alert.AlertType.INFORMATION);
             ok.setTitle("Imagem associada");
             ok.setHeaderText(null);
@@ -466,7 +626,7 @@ public class MainController {
             }
         };
 
-        runAsync("Erro ao trocar imagem", task, ignored -> {
+        runAsync("trocar-imagem", "Erro ao trocar imagem", task, ignored -> {
             Alert ok = new Alert(Alert.AlertType.INFORMATION);
             ok.setTitle("Imagem atualizada");
             ok.setHeaderText(null);
@@ -540,25 +700,15 @@ public class MainController {
         }
 
         // Imagem local
-        boolean temImagemLocal = false;
-        File arquivoImagem = null;
-
-        if (imagemRepository != null) {
-            try {
-                Optional<File> imgOpt = imagemRepository.obterImagem(dto.getSku());
-                if (imgOpt.isPresent() && imgOpt.get().exists() && imgOpt.get().isFile()) {
-                    temImagemLocal = true;
-                    arquivoImagem = imgOpt.get();
-                }
-            } catch (Exception ignored) {
-                // painel não pode derrubar a UI
-            }
-        }
+        File arquivoImagem = imagemLocal(dto);
+        boolean temImagemLocal = arquivoImagem != null;
 
         if (imgPreview != null) {
-            if (temImagemLocal && arquivoImagem != null) {
-                Image image = new Image(arquivoImagem.toURI().toString(), true);
-                imgPreview.setImage(image);
+            if (temImagemLocal) {
+                // ✅ miniatura do cache (decodificada no tamanho do painel, em segundo plano)
+                imgPreview.setImage(miniaturas != null
+                        ? miniaturas.obter(dto.getSku(), arquivoImagem)
+                        : new Image(arquivoImagem.toURI().toString(), true));
             } else {
                 imgPreview.setImage(null);
             }
@@ -567,6 +717,36 @@ public class MainController {
         if (lblSemImagem != null) {
             lblSemImagem.setVisible(!temImagemLocal);
         }
+
+        preCarregarVizinhas(dto);
+    }
+
+    private File imagemLocal(ProdutoCatalogoStatusDTO dto) {
+        if (imagemRepository == null || dto == null) return null;
+        try {
+            Optional<File> imgOpt = imagemRepository.obterImagem(dto.getSku());
+            if (imgOpt.isPresent() && imgOpt.get().isFile()) return imgOpt.get();
+        } catch (Exception ignored) {
+            // painel não pode derrubar a UI
+        }
+        return null;
+    }
+
+    // navegando com as setas, a próxima/anterior já estão decodificadas quando chegar nelas
+    private void preCarregarVizinhas(ProdutoCatalogoStatusDTO dto) {
+        if (miniaturas == null || tabelaProdutos == null) return;
+
+        List<ProdutoCatalogoStatusDTO> itens = tabelaProdutos.getItems();
+        int idx = tabelaProdutos.getSelectionModel().getSelectedIndex();
+        if (idx < 0 || idx >= itens.size() || itens.get(idx) != dto) return;
+
+        for (int d = 1; d <= LINHAS_PRE_CARREGADAS; d++) {
+            for (int i : new int[]{idx + d, idx - d}) {
+                if (i < 0 || i >= itens.size()) continue;
+                ProdutoCatalogoStatusDTO vizinha = itens.get(i);
+                miniaturas.preCarregar(vizinha.getSku(), imagemLocal(vizinha));
+            }
+        }
     }
 
     private void limparPainelDetalhe() {
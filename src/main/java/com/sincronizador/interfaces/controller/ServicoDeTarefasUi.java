@@ -0,0 +1,170 @@
+package com.sincronizador.interfaces.controller;
+
+import javafx.concurrent.Task;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execução das tarefas em segundo plano da tela (no lugar de uma Thread nova por clique):
+ *
+ * - pool geral pequeno e limitado (associar/trocar imagem, carga da tabela);
+ * - fila exclusiva de 1 thread para tarefas longas (sincronização): só uma por vez,
+ *   e uma segunda sync pedida enquanto outra está na fila/rodando é recusada;
+ * - threads com nome "sincronizador-ui-<tipo>-N" (aparecem assim em thread dumps);
+ * - encerrar() cancela o que estiver rodando (ao fechar a janela);
+ * - métricas de tempo por tipo de tarefa.
+ */
+public class ServicoDeTarefasUi {
+
+    private static final int THREADS_GERAIS = 2;
+    private static final int FILA_GERAL = 8;
+
+    private final ThreadPoolExecutor geral;
+    private final ThreadPoolExecutor exclusivo;
+
+    private final Set<Task<?>> emAndamento = ConcurrentHashMap.newKeySet();
+    private final Map<String, Estatistica> estatisticas = new ConcurrentHashMap<>();
+
+    public ServicoDeTarefasUi() {
+        this.geral = new ThreadPoolExecutor(
+                THREADS_GERAIS, THREADS_GERAIS,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(FILA_GERAL),
+                fabrica("sincronizador-ui-"));
+        this.geral.allowCoreThreadTimeOut(true);
+
+        // fila de 0: com a thread ocupada, um segundo pedido é recusado em vez de empilhar
+        this.exclusivo = new ThreadPoolExecutor(
+                1, 1,
+                30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                fabrica("sincronizador-ui-exclusivo-"));
+        this.exclusivo.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Tarefa curta no pool geral.
+     *
+     * @throws RejectedExecutionException se o pool e a fila estiverem cheios
+     */
+    public <T> void executar(String tipo, Task<T> task) {
+        submeter(geral, tipo, task);
+    }
+
+    /**
+     * Tarefa longa na fila exclusiva (uma por vez).
+     *
+     * @throws RejectedExecutionException se já houver uma tarefa exclusiva em andamento
+     */
+    public <T> void executarExclusivo(String tipo, Task<T> task) {
+        submeter(exclusivo, tipo, task);
+    }
+
+    private <T> void submeter(ThreadPoolExecutor pool, String tipo, Task<T> task) {
+        Objects.requireNonNull(tipo, "tipo não pode ser nulo");
+        Objects.requireNonNull(task, "task não pode ser nula");
+
+        emAndamento.add(task);
+        try {
+            pool.execute(() -> rodar(tipo, task));
+        } catch (RejectedExecutionException e) {
+            emAndamento.remove(task);
+            throw e;
+        }
+    }
+
+    private <T> void rodar(String tipo, Task<T> task) {
+        Thread atual = Thread.currentThread();
+        String nomeOriginal = atual.getName();
+        atual.setName(nomeOriginal.replaceFirst("sincronizador-ui-", "sincronizador-ui-" + tipo + "-"));
+
+        long inicio = System.nanoTime();
+        Resultado resultado;
+        try {
+            task.run();
+            resultado = resultado(task);
+        } finally {
+            atual.setName(nomeOriginal);
+            emAndamento.remove(task);
+        }
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        estatisticas.computeIfAbsent(tipo, k -> new Estatistica()).registrar(ms, resultado);
+
+        // limpa flag de interrupção deixada por um cancel() antes de devolver a thread ao pool
+        Thread.interrupted();
+    }
+
+    private static Resultado resultado(Task<?> task) {
+        if (task.isCancelled()) return Resultado.CANCELADA;
+        try {
+            task.get();
+            return Resultado.OK;
+        } catch (ExecutionException e) {
+            return Resultado.FALHA;
+        } catch (InterruptedException | CancellationException e) {
+            return Resultado.CANCELADA;
+        }
+    }
+
+    /**
+     * Cancela tudo que estiver rodando/na fila e não aceita novas tarefas.
+     */
+    public void encerrar() {
+        for (Task<?> t : emAndamento) {
+            t.cancel(true);
+        }
+        geral.shutdownNow();
+        exclusivo.shutdownNow();
+    }
+
+    /**
+     * Ex.: "sincronizacao: 3x, média 41250 ms, máx 60012 ms, falhas 0, canceladas 0".
+     */
+    public String getResumo() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(estatisticas).forEach((tipo, e) -> {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(tipo).append(": ").append(e);
+        });
+        return sb.toString();
+    }
+
+    private static ThreadFactory fabrica(String prefixo) {
+        AtomicInteger seq = new AtomicInteger(1);
+        return r -> {
+            Thread t = new Thread(r, prefixo + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private enum Resultado { OK, FALHA, CANCELADA }
+
+    private static final class Estatistica {
+        private final AtomicLong execucoes = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+        private final AtomicLong falhas = new AtomicLong();
+        private final AtomicLong canceladas = new AtomicLong();
+
+        void registrar(long ms, Resultado resultado) {
+            execucoes.incrementAndGet();
+            totalMs.addAndGet(ms);
+            maxMs.accumulateAndGet(ms, Math::max);
+            if (resultado == Resultado.FALHA) falhas.incrementAndGet();
+            if (resultado == Resultado.CANCELADA) canceladas.incrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            long n = execucoes.get();
+            long media = (n == 0) ? 0 : totalMs.get() / n;
+            return n + "x, média " + media + " ms, máx " + maxMs.get() + " ms, falhas " + falhas.get()
+                    + ", canceladas " + canceladas.get();
+        }
+    }
+}
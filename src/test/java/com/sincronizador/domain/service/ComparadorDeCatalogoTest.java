@@ -0,0 +1,196 @@
+package com.sincronizador.domain.service;
+
+import com.sincronizador.domain.model.AcaoDeSincronizacao;
+import com.sincronizador.domain.model.Disponibilidade;
+import com.sincronizador.domain.model.ItemDeCatalogo;
+import com.sincronizador.domain.model.PlanoDeSincronizacao;
+import com.sincronizador.domain.model.Produto;
+import com.sincronizador.domain.model.SKU;
+import com.sincronizador.domain.valueobject.Tamanho;
+import com.sincronizador.domain.valueobject.Tipo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparadorDeCatalogoTest {
+
+    private static final int MASCARA_P_M = Tamanho.P.getBit() | Tamanho.M.getBit();
+    private static final int MASCARA_G = Tamanho.G.getBit();
+
+    @Test
+    void pareiaErpECatalogoPorSku() {
+        SKU novo = SKU.de("VASCO", "HOME 2025", Tipo.MASCULINO);
+        SKU igual = SKU.de("FLAMENGO", "AWAY 2025", Tipo.MASCULINO);
+        SKU divergente = SKU.de("SANTOS", "HOME 2025", Tipo.FEMININO);
+        SKU sairDoErp = SKU.de("BAHIA", "THIRD 2024", Tipo.MASCULINO);
+
+        ItemDeCatalogo itemIgual = item(SKU.de("Flamengo ", "away  2025", Tipo.MASCULINO), MASCARA_P_M, "id-igual");
+        ItemDeCatalogo duplicado = item(igual, MASCARA_G, "id-duplicado");
+        ItemDeCatalogo itemDivergente = item(divergente, MASCARA_P_M, "id-divergente");
+        ItemDeCatalogo itemRemovido = item(sairDoErp, MASCARA_P_M, "id-removido");
+
+        PlanoDeSincronizacao plano = ComparadorDeCatalogo.comparar(
+                List.of(disponivel(novo, MASCARA_P_M), disponivel(igual, MASCARA_P_M), disponivel(divergente, MASCARA_G)),
+                List.of(itemIgual, duplicado, itemDivergente, itemRemovido));
+
+        List<AcaoDeSincronizacao> acoes = plano.getAcoes();
+        assertEquals(4, acoes.size());
+
+        assertEquals(AcaoDeSincronizacao.Tipo.CRIAR, acoes.get(0).getTipo());
+        assertEquals(novo, acoes.get(0).getSku());
+        assertNull(acoes.get(0).getItem());
+
+        // duplicado no catálogo: vale o primeiro
+        assertEquals(AcaoDeSincronizacao.Tipo.NENHUMA, acoes.get(1).getTipo());
+        assertSame(itemIgual, acoes.get(1).getItem());
+
+        assertEquals(AcaoDeSincronizacao.Tipo.ATUALIZAR, acoes.get(2).getTipo());
+        assertSame(itemDivergente, acoes.get(2).getItem());
+        assertEquals(MASCARA_G, acoes.get(2).getDisponibilidade().getMascara());
+        assertTrue(acoes.get(2).getMotivo().contains("+G -P,M"), acoes.get(2).getMotivo());
+
+        assertEquals(AcaoDeSincronizacao.Tipo.REMOVER, acoes.get(3).getTipo());
+        assertEquals("id-removido", acoes.get(3).getIdExterno());
+    }
+
+    @Test
+    void escalaLinearmenteNoTamanhoDoCatalogo() {
+        Cenario pequeno = cenario(25_000);
+        Cenario grande = cenario(100_000);
+
+        long operacoesPequeno = pequeno.operacoes();
+        long operacoesGrande = grande.operacoes();
+
+        Map<AcaoDeSincronizacao.Tipo, Integer> resumo = grande.plano.getResumo();
+        assertEquals(25_000, resumo.get(AcaoDeSincronizacao.Tipo.CRIAR));
+        assertEquals(25_000, resumo.get(AcaoDeSincronizacao.Tipo.ATUALIZAR));
+        assertEquals(50_000, resumo.get(AcaoDeSincronizacao.Tipo.NENHUMA));
+        assertEquals(25_000, resumo.get(AcaoDeSincronizacao.Tipo.REMOVER));
+
+        // trabalho contado em hashCode/equals de SKU (determinístico, ao contrário do tempo de parede):
+        // junção por hash = algumas operações por item; busca linear = n x m
+        int itensGrande = grande.erp.size() + grande.catalogo.size();
+        assertTrue(operacoesGrande <= 4L * itensGrande,
+                "operações por item acima do esperado: " + operacoesGrande + " para " + itensGrande + " itens");
+
+        // 4x mais dados: linear ~4x, quadrático ~16x
+        double razao = (double) operacoesGrande / operacoesPequeno;
+        assertTrue(razao < 4.5, "comparar não escala linearmente: 25k=" + operacoesPequeno
+                + " operações, 100k=" + operacoesGrande + " (razão " + razao + ")");
+    }
+
+    @Test
+    void comparacaoIncrementalChegaAoMesmoPlanoEmQualquerOrdemDeChegada() {
+        Cenario c = cenario(2_000);
+        List<Disponibilidade> erp = new ArrayList<>(c.erp);
+        erp.sort((a, b) -> SKU.ORDEM.compare(a.getSku(), b.getSku()));
+        List<AcaoDeSincronizacao> esperado = ComparadorDeCatalogo.comparar(erp, c.catalogo).getAcoes();
+
+        // ERP e catálogo intercalados (como duas leituras concorrentes), ERP fora de ordem
+        ComparacaoIncremental emAndamento = new ComparacaoIncremental();
+        int i = c.erp.size() - 1, j = 0;
+        while (i >= 0 || j < c.catalogo.size()) {
+            if (j < c.catalogo.size()) emAndamento.adicionarDoCatalogo(c.catalogo.get(j++));
+            if (i >= 0) emAndamento.adicionarDoErp(c.erp.get(i--));
+            if (j < c.catalogo.size()) emAndamento.adicionarDoCatalogo(c.catalogo.get(j++));
+        }
+        List<AcaoDeSincronizacao> obtido = emAndamento.concluir().getAcoes();
+
+        assertEquals(esperado.size(), obtido.size());
+        for (int k = 0; k < esperado.size(); k++) {
+            assertEquals(esperado.get(k).getTipo(), obtido.get(k).getTipo());
+            assertEquals(esperado.get(k).getSku(), obtido.get(k).getSku());
+            assertSame(esperado.get(k).getItem(), obtido.get(k).getItem());
+            assertEquals(esperado.get(k).getMotivo(), obtido.get(k).getMotivo());
+        }
+    }
+
+    /**
+     * n SKUs no ERP: 1/4 ausentes no catálogo, 1/4 com tamanhos divergentes, 1/2 iguais;
+     * o catálogo ainda tem n/4 itens que saíram do ERP.
+     * No catálogo os SKUs são outras instâncias (outra grafia), como na leitura real.
+     */
+    private static Cenario cenario(int n) {
+        long[] contador = new long[1];
+        List<Disponibilidade> erp = new ArrayList<>(n);
+        List<ItemDeCatalogo> catalogo = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            String clube = "CLUBE " + (i % 500);
+            String modelo = "MODELO " + i;
+            erp.add(disponivel(new SkuContado(clube, modelo, contador), MASCARA_P_M));
+
+            SKU noCatalogo = new SkuContado(clube.toLowerCase(), " " + modelo, contador);
+            switch (i % 4) {
+                case 0:
+                    break;
+                case 1:
+                    catalogo.add(item(noCatalogo, MASCARA_G, "id-" + i));
+                    break;
+                default:
+                    catalogo.add(item(noCatalogo, MASCARA_P_M, "id-" + i));
+            }
+        }
+        for (int i = 0; i < n / 4; i++) {
+            SKU sku = new SkuContado("CLUBE " + (i % 500), "FORA DO ERP " + i, contador);
+            catalogo.add(item(sku, MASCARA_P_M, "removido-" + i));
+        }
+        return new Cenario(erp, catalogo, contador);
+    }
+
+    private static Disponibilidade disponivel(SKU sku, int mascara) {
+        return Disponibilidade.aPartirDaMascara(sku, mascara);
+    }
+
+    private static ItemDeCatalogo item(SKU sku, int mascara, String id) {
+        return new ItemDeCatalogo(sku, Disponibilidade.aPartirDaMascara(sku, mascara), id);
+    }
+
+    // conta as operações de igualdade que a comparação faz com os SKUs
+    private static final class SkuContado extends SKU {
+        private final long[] contador;
+
+        private SkuContado(String clube, String modelo, long[] contador) {
+            super(new Produto(clube, modelo, Tipo.MASCULINO));
+            this.contador = contador;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            contador[0]++;
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            contador[0]++;
+            return super.hashCode();
+        }
+    }
+
+    private static final class Cenario {
+        private final List<Disponibilidade> erp;
+        private final List<ItemDeCatalogo> catalogo;
+        private final long[] contador;
+        private PlanoDeSincronizacao plano;
+
+        private Cenario(List<Disponibilidade> erp, List<ItemDeCatalogo> catalogo, long[] contador) {
+            this.erp = erp;
+            this.catalogo = catalogo;
+            this.contador = contador;
+        }
+
+        private long operacoes() {
+            contador[0] = 0;
+            plano = ComparadorDeCatalogo.comparar(erp, catalogo);
+            return contador[0];
+        }
+    }
+}
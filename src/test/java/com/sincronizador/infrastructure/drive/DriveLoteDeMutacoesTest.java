@@ -0,0 +1,240 @@
+package com.sincronizador.infrastructure.drive;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lote contra um Drive falso (MockHttpTransport): cada batch request é desmontado em sub-requisições
+ * e respondido com um multipart, como o endpoint /batch/drive/v3.
+ */
+class DriveLoteDeMutacoesTest {
+
+    @Test
+    void mesclaPatchesDoMesmoArquivoERemocaoDescartaPatch() {
+        DriveFalso driveFalso = new DriveFalso();
+        DriveLoteDeMutacoes lote = new DriveLoteDeMutacoes(driveFalso.drive());
+
+        lote.agendarPatch("a", new File().setName("VASCO HOME P-M.png"));
+        lote.agendarPatch("a", new File().setAppProperties(Map.of("sku_tamanhos_fabrica", "P,M")));
+        lote.agendarPatch("b", new File().setName("SANTOS AWAY G.png"));
+        lote.agendarRemocao("b");
+        lote.agendarRemocao("c");
+
+        assertTrue(lote.enviar().isEmpty());
+
+        assertEquals(1, driveFalso.batches.size());
+        List<SubRequisicao> enviadas = driveFalso.batches.get(0);
+        assertEquals(3, enviadas.size());
+
+        assertEquals("PATCH", enviadas.get(0).metodo);
+        assertEquals("a", enviadas.get(0).fileId);
+        assertTrue(enviadas.get(0).corpo.contains("\"name\":\"VASCO HOME P-M.png\""), enviadas.get(0).corpo);
+        assertTrue(enviadas.get(0).corpo.contains("\"sku_tamanhos_fabrica\":\"P,M\""), enviadas.get(0).corpo);
+
+        assertEquals("DELETE b", enviadas.get(1).metodo + " " + enviadas.get(1).fileId);
+        assertEquals("DELETE c", enviadas.get(2).metodo + " " + enviadas.get(2).fileId);
+    }
+
+    @Test
+    void respeitaLimiteDeChamadasPorBatch() {
+        DriveFalso driveFalso = new DriveFalso();
+        DriveLoteDeMutacoes lote = new DriveLoteDeMutacoes(driveFalso.drive());
+
+        for (int i = 0; i < DriveLoteDeMutacoes.LIMITE_POR_LOTE + 50; i++) {
+            lote.agendarRemocao("id-" + i);
+        }
+
+        assertTrue(lote.enviar().isEmpty());
+        assertEquals(2, driveFalso.batches.size());
+        assertEquals(DriveLoteDeMutacoes.LIMITE_POR_LOTE, driveFalso.batches.get(0).size());
+        assertEquals(50, driveFalso.batches.get(1).size());
+    }
+
+    @Test
+    void reenviaSoAsSubRequisicoesComThrottling() {
+        DriveFalso driveFalso = new DriveFalso();
+        driveFalso.respostas.put("b", new ArrayList<>(List.of(429)));
+        DriveRateLimiter limiter = new DriveRateLimiter(1000, 500, 1000, 1, 0.5);
+        DriveLoteDeMutacoes lote = new DriveLoteDeMutacoes(driveFalso.drive(limiter));
+
+        lote.agendarRemocao("a");
+        lote.agendarRemocao("b");
+
+        assertTrue(lote.enviar().isEmpty());
+
+        assertEquals(2, driveFalso.batches.size());
+        assertEquals(1, driveFalso.batches.get(1).size());
+        assertEquals("b", driveFalso.batches.get(1).get(0).fileId);
+
+        assertEquals(1, limiter.getMetricas().getRespostasThrottled());
+        assertEquals(1, limiter.getMetricas().getRetentativas());
+    }
+
+    @Test
+    void erroDefinitivoNaoEReenviado() {
+        DriveFalso driveFalso = new DriveFalso();
+        driveFalso.respostas.put("b", new ArrayList<>(List.of(404)));
+        DriveLoteDeMutacoes lote = new DriveLoteDeMutacoes(driveFalso.drive());
+
+        lote.agendarRemocao("a");
+        lote.agendarRemocao("b");
+
+        Map<String, String> falhas = lote.enviar();
+
+        assertEquals(1, driveFalso.batches.size());
+        assertEquals(List.of("b"), new ArrayList<>(falhas.keySet()));
+        assertTrue(falhas.get("b").startsWith("404"), falhas.get("b"));
+    }
+
+    @Test
+    void permissaoNegadaNaoDerrubaAsOutrasDoLote() {
+        DriveFalso driveFalso = new DriveFalso();
+        driveFalso.respostas.put("b", new ArrayList<>(List.of(403)));
+        DriveLoteDeMutacoes lote = new DriveLoteDeMutacoes(driveFalso.drive());
+
+        lote.agendarPatch("a", new File().setName("VASCO HOME P-M.png"));
+        lote.agendarRemocao("b");
+
+        Map<String, String> falhas = lote.enviar();
+
+        // 403 de permissão não é throttling: sem re-envio, e o corpo do erro chega ao callback
+        assertEquals(1, driveFalso.batches.size());
+        assertEquals(List.of("b"), new ArrayList<>(falhas.keySet()));
+        assertTrue(falhas.get("b").startsWith("403"), falhas.get("b"));
+        assertTrue(falhas.get("b").contains("insufficientFilePermissions"), falhas.get("b"));
+    }
+
+    private static final class SubRequisicao {
+        private final String metodo;
+        private final String fileId;
+        private final String corpo;
+
+        private SubRequisicao(String metodo, String fileId, String corpo) {
+            this.metodo = metodo;
+            this.fileId = fileId;
+            this.corpo = corpo;
+        }
+    }
+
+    /**
+     * Responde cada sub-requisição com o próximo status programado para o arquivo (200/204 quando acabar).
+     */
+    private static final class DriveFalso extends MockHttpTransport {
+
+        private static final Pattern LINHA_DE_REQUISICAO =
+                Pattern.compile("^(PATCH|DELETE) \\S*/files/([^?\\s]+)\\S* HTTP/1\\.1$", Pattern.MULTILINE);
+        private static final String FRONTEIRA = "resposta_falsa";
+
+        private final List<List<SubRequisicao>> batches = new ArrayList<>();
+        private final Map<String, List<Integer>> respostas = new HashMap<>();
+
+        Drive drive() {
+            return drive(new DriveRateLimiter(1000, 500, 1000, 1, 0.5));
+        }
+
+        Drive drive(DriveRateLimiter limiter) {
+            // backoff de 1-2 ms: o teste não espera os segundos da configuração real
+            DriveThrottlingInitializer init = new DriveThrottlingInitializer(null, limiter, 3, 1, 2);
+            return new Drive.Builder(this, GsonFactory.getDefaultInstance(), init)
+                    .setApplicationName("sincronizador-teste")
+                    .build();
+        }
+
+        @Override
+        public LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+                    getStreamingContent().writeTo(corpo);
+                    return responder(corpo.toString(StandardCharsets.UTF_8));
+                }
+            };
+        }
+
+        private LowLevelHttpResponse responder(String corpo) {
+            List<SubRequisicao> recebidas = new ArrayList<>();
+            StringBuilder resposta = new StringBuilder();
+
+            String[] partes = corpo.split("\r\n--");
+            for (String parte : partes) {
+                Matcher m = LINHA_DE_REQUISICAO.matcher(parte);
+                if (!m.find()) continue;
+
+                String metodo = m.group(1);
+                String fileId = m.group(2);
+                recebidas.add(new SubRequisicao(metodo, fileId, parte.substring(m.end())));
+
+                List<Integer> programadas = respostas.getOrDefault(fileId, new ArrayList<>());
+                int status = programadas.isEmpty() ? (metodo.equals("DELETE") ? 204 : 200) : programadas.remove(0);
+
+                resposta.append("--").append(FRONTEIRA).append("\r\n")
+                        .append("Content-Type: application/http\r\n")
+                        .append("Content-ID: response-").append(recebidas.size()).append("\r\n\r\n")
+                        .append("HTTP/1.1 ").append(status).append(' ').append(motivo(status)).append("\r\n");
+                if (status == 204) {
+                    resposta.append("\r\n");
+                } else {
+                    String json = (status == 200)
+                            ? "{\"id\":\"" + fileId + "\"}"
+                            : "{\"error\":{\"code\":" + status + ",\"message\":\"" + mensagem(status) + "\","
+                                    + "\"errors\":[{\"domain\":\"global\",\"reason\":\"" + razao(status) + "\","
+                                    + "\"message\":\"" + mensagem(status) + "\"}]}}";
+                    resposta.append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+                            .append(json).append("\r\n");
+                }
+            }
+            resposta.append("--").append(FRONTEIRA).append("--\r\n");
+
+            batches.add(recebidas);
+            return new MockLowLevelHttpResponse()
+                    .setStatusCode(200)
+                    .setContentType("multipart/mixed; boundary=" + FRONTEIRA)
+                    .setContent(resposta.toString());
+        }
+
+        private static String razao(int status) {
+            switch (status) {
+                case 403: return "insufficientFilePermissions";
+                case 404: return "notFound";
+                case 429: return "rateLimitExceeded";
+                default: return "backendError";
+            }
+        }
+
+        private static String mensagem(int status) {
+            return (status == 403) ? "insufficientFilePermissions: sem acesso de escrita" : motivo(status);
+        }
+
+        private static String motivo(int status) {
+            switch (status) {
+                case 200: return "OK";
+                case 204: return "No Content";
+                case 403: return "Forbidden";
+                case 404: return "Not Found";
+                case 429: return "Too Many Requests";
+                default: return "Error";
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sincronizador.infrastructure.erp;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErpDataSourceFactoryTest {
+
+    // porta 1: nada escuta ali; o pool não pode depender do ERP no ar
+    private static final String URL = "jdbc:mysql://127.0.0.1:1/erp";
+
+    @Test
+    void configuraPoolSomenteLeituraComStatementsNoServidorECursor() {
+        HikariConfig cfg = ErpDataSourceFactory.configuracao(URL, "leitor", "segredo", 4, 2);
+
+        assertEquals("erp-pool", cfg.getPoolName());
+        assertEquals(URL, cfg.getJdbcUrl());
+        assertEquals("leitor", cfg.getUsername());
+        assertEquals(4, cfg.getMaximumPoolSize());
+        assertEquals(2, cfg.getMinimumIdle());
+        assertTrue(cfg.isReadOnly());
+        assertEquals(-1, cfg.getInitializationFailTimeout());
+
+        Properties props = cfg.getDataSourceProperties();
+        assertEquals("true", props.getProperty("useServerPrepStmts"));
+        assertEquals("true", props.getProperty("cachePrepStmts"));
+        assertEquals("true", props.getProperty("useCursorFetch"));
+    }
+
+    @Test
+    void ajustaTamanhosForaDaFaixa() {
+        HikariConfig semPool = ErpDataSourceFactory.configuracao(URL, "u", "s", 0, -3);
+        assertEquals(1, semPool.getMaximumPoolSize());
+        assertEquals(0, semPool.getMinimumIdle());
+
+        HikariConfig ociosoDemais = ErpDataSourceFactory.configuracao(URL, "u", "s", 3, 10);
+        assertEquals(3, ociosoDemais.getMaximumPoolSize());
+        assertEquals(3, ociosoDemais.getMinimumIdle());
+    }
+
+    @Test
+    void criaPoolMesmoComErpForaDoAr() {
+        try (HikariDataSource ds = ErpDataSourceFactory.criar(URL, "u", "s", 2, 0)) {
+            assertFalse(ds.isClosed());
+            assertEquals(2, ds.getMaximumPoolSize());
+        }
+    }
+
+    @Test
+    void exigeUrl() {
+        assertThrows(NullPointerException.class, () -> ErpDataSourceFactory.configuracao(null, "u", "s", 1, 0));
+    }
+}
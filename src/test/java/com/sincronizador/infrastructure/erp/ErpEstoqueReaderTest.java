@@ -0,0 +1,161 @@
+package com.sincronizador.infrastructure.erp;
+
+import com.sincronizador.domain.model.Disponibilidade;
+import com.sincronizador.domain.model.SKU;
+import com.sincronizador.domain.valueobject.Tamanho;
+import com.sincronizador.domain.valueobject.Tipo;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErpEstoqueReaderTest {
+
+    private JdbcDataSource dataSource;
+
+    // relógio da coluna de change-capture, sempre andando para frente
+    private long agora = System.currentTimeMillis();
+
+    @BeforeEach
+    void criarTabela() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:erp-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+            st.execute("""
+                    CREATE TABLE produtos (
+                        Clube VARCHAR(100),
+                        Modelo VARCHAR(100),
+                        Tipo VARCHAR(20),
+                        Tamanho VARCHAR(10),
+                        QuantidadeEstoque INT,
+                        AtualizadoEm TIMESTAMP
+                    )
+                    """);
+        }
+    }
+
+    @Test
+    void agregaTamanhosEJuntaGrafiasDoMesmoProduto() throws SQLException {
+        inserir("Flamengo", "Home 2024", "Masculino", "P", 3);
+        inserir("Flamengo", "Home 2024", "Masculino", "G", 0);
+        inserir("Flamengo", "Home 2024", "Masculino", "XG", 5); // tamanho desconhecido: ignorado
+        inserir("Vasco", "Away", "Feminina", "M", 1);
+        inserir(" flamengo ", "HOME  2024", "M", "GG", 2);  // outra grafia do mesmo SKU
+        inserir("Palmeiras", "Third", "Infantil", "16", 4);
+        inserir("Santos", "Home", "Masculino", "P", 0);     // nada em estoque
+
+        List<Disponibilidade> lidas = new ErpEstoqueReader(dataSource, null, 0, 2).obterDisponibilidades();
+
+        Map<SKU, Disponibilidade> porSku = porSku(lidas);
+        assertEquals(3, lidas.size());
+        assertEquals(EnumSet.of(Tamanho.P, Tamanho.GG),
+                porSku.get(SKU.de("Flamengo", "Home 2024", Tipo.MASCULINO)).getTamanhosDisponiveis());
+        assertEquals(EnumSet.of(Tamanho.M),
+                porSku.get(SKU.de("Vasco", "Away", Tipo.FEMININO)).getTamanhosDisponiveis());
+        assertEquals(EnumSet.of(Tamanho._16),
+                porSku.get(SKU.de("Palmeiras", "Third", Tipo.INFANTIL)).getTamanhosDisponiveis());
+
+        // exibe a menor grafia (" flamengo " < "Flamengo"), qualquer que seja a ordem das linhas
+        assertEquals("flamengo", porSku.get(SKU.de("Flamengo", "Home 2024", Tipo.MASCULINO)).getSku().getClube());
+    }
+
+    @Test
+    void streamingEntregaNaOrdemDosSkus() throws SQLException {
+        inserir("Vasco", "Away", "Masculino", "M", 1);
+        inserir("Botafogo", "Home", "Masculino", "P", 1);
+        inserir("Flamengo", "Home", "Masculino", "G", 1);
+
+        List<SKU> ordem = new ArrayList<>();
+        new ErpEstoqueReader(dataSource, null, 0, 1).percorrerDisponibilidades(d -> ordem.add(d.getSku()));
+
+        List<SKU> esperado = new ArrayList<>(ordem);
+        esperado.sort(SKU.ORDEM);
+        assertEquals(3, ordem.size());
+        assertEquals(esperado, ordem);
+    }
+
+    @Test
+    void deltaTrocaSoAGrafiaAlteradaEZeradoSaiDoSnapshot() throws SQLException {
+        inserir("Flamengo", "Home", "Masculino", "P", 1);
+        inserir("Flamengo", "Home", "Masculino", "M", 1);
+        inserir("FLAMENGO", "Home", "Masculino", "GG", 1);
+        inserir("Vasco", "Away", "Masculino", "G", 2);
+
+        ErpEstoqueReader reader = new ErpEstoqueReader(dataSource, "AtualizadoEm", 0, 10);
+        SKU flamengo = SKU.de("Flamengo", "Home", Tipo.MASCULINO);
+        SKU vasco = SKU.de("Vasco", "Away", Tipo.MASCULINO);
+
+        assertEquals(EnumSet.of(Tamanho.P, Tamanho.M, Tamanho.GG),
+                porSku(reader.obterDisponibilidades()).get(flamengo).getTamanhosDisponiveis());
+
+        // só a grafia "FLAMENGO" muda: P/M da grafia "Flamengo" continuam valendo
+        atualizar("FLAMENGO", "Home", "GG", 0);
+        inserir("FLAMENGO", "Home", "Masculino", "G", 3);
+        // Vasco zera inteiro
+        atualizar("Vasco", "Away", "G", 0);
+
+        Map<SKU, Disponibilidade> depois = porSku(reader.obterDisponibilidades());
+        assertEquals(EnumSet.of(Tamanho.P, Tamanho.M, Tamanho.G), depois.get(flamengo).getTamanhosDisponiveis());
+        assertFalse(depois.containsKey(vasco));
+
+        // a grafia "Flamengo" zera: sobra só o que a outra grafia tem
+        atualizar("Flamengo", "Home", "P", 0);
+        atualizar("Flamengo", "Home", "M", 0);
+
+        Disponibilidade ultimo = porSku(reader.obterDisponibilidades()).get(flamengo);
+        assertEquals(EnumSet.of(Tamanho.G), ultimo.getTamanhosDisponiveis());
+        assertEquals("FLAMENGO", ultimo.getSku().getClube());
+        assertTrue(ultimo.estaDisponivel());
+    }
+
+    private void inserir(String clube, String modelo, String tipo, String tamanho, int quantidade) throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("INSERT INTO produtos VALUES (?, ?, ?, ?, ?, ?)")) {
+            ps.setString(1, clube);
+            ps.setString(2, modelo);
+            ps.setString(3, tipo);
+            ps.setString(4, tamanho);
+            ps.setInt(5, quantidade);
+            ps.setTimestamp(6, proximoInstante());
+            ps.executeUpdate();
+        }
+    }
+
+    private void atualizar(String clube, String modelo, String tamanho, int quantidade) throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "UPDATE produtos SET QuantidadeEstoque = ?, AtualizadoEm = ? WHERE Clube = ? AND Modelo = ? AND Tamanho = ?")) {
+            ps.setInt(1, quantidade);
+            ps.setTimestamp(2, proximoInstante());
+            ps.setString(3, clube);
+            ps.setString(4, modelo);
+            ps.setString(5, tamanho);
+            assertEquals(1, ps.executeUpdate());
+        }
+    }
+
+    private Timestamp proximoInstante() {
+        agora += 1000;
+        return new Timestamp(agora);
+    }
+
+    private static Map<SKU, Disponibilidade> porSku(List<Disponibilidade> lidas) {
+        return lidas.stream().collect(Collectors.toMap(Disponibilidade::getSku, d -> d));
+    }
+}